@@ -0,0 +1,36 @@
+// /members 계열 endpoint 부하 테스트 (k6: https://k6.io)
+//
+// 1) 기본(플랫폼 스레드) 모드로 실행:  ./gradlew bootRun
+//    k6 run loadtest/members.js
+// 2) 가상 스레드 모드로 실행 (Java 21):  ./gradlew bootRun --args='--spring.profiles.active=virtual'
+//    k6 run loadtest/members.js
+// 두 결과의 http_reqs(처리량)와 http_req_duration p(99)를 비교한다.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+
+export const options = {
+    scenarios: {
+        members: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 2000),
+            duration: __ENV.DURATION || '60s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const page = Math.floor(Math.random() * 20);
+    // 쿠키 대신 VU마다 고정된 X-Client-Id를 보낸다. (replica 라우팅 시 read-your-writes 기준)
+    const params = { headers: { 'X-Client-Id': `k6-${__VU}` } };
+    const responses = http.batch([
+        ['GET', `${BASE_URL}/members/${1 + Math.floor(Math.random() * 100)}`, null, params],
+        ['GET', `${BASE_URL}/members?page=${page}&size=5`, null, params],
+        ['GET', `${BASE_URL}/members2?page=${page}&size=5`, null, params],
+    ]);
+    for (const response of responses) {
+        check(response, { 'status is 200': (r) => r.status === 200 });
+    }
+}
@@ -0,0 +1,30 @@
+package study.datajpa;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// 벤치마크용 애플리케이션 컨텍스트: 외부 H2 서버 대신 벤치마크마다 독립된 내장 H2(mem)를 사용한다.
+// SQL 로그, p6spy, 2차 캐시는 측정값을 흐리므로 끈다.
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String name, String... properties) {
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create", // 매핑의 @Table(indexes)로 인덱스까지 만든다.
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "decorator.datasource.enabled=false",
+                        "logging.level.root=warn",
+                        "logging.level.org.hibernate.SQL=warn")
+                .properties(properties)
+                .run();
+    }
+}
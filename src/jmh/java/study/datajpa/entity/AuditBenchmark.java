@@ -0,0 +1,77 @@
+package study.datajpa.entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.BenchmarkContext;
+
+import java.util.function.IntFunction;
+
+// 감사 방식별 persist 처리량 (ops/s = insert/s), 여러 스레드에서 동시에 실행해서 SecureRandom 경합까지 포함한다.
+// - none: 감사 정보 없음
+// - springAuditing: AuditingEntityListener, 엔티티마다 AuditorAware(UUID.randomUUID) + LocalDateTime.now() + 리플렉션
+// - lightAuditing: AuditListener, 트랜잭션당 AuditorAware 1번, 시간은 persist마다, 메서드 호출
+@State(Scope.Benchmark)
+@Threads(4)
+public class AuditBenchmark {
+
+    private static final int INSERTS = 1000;
+    private static final int BATCH = 100;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("audit");
+        em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERTS)
+    public void none() {
+        insert(i -> new PlainEntity("member" + i));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERTS)
+    public void springAuditing() {
+        insert(i -> new SpringAuditedEntity("member" + i));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERTS)
+    public void lightAuditing() {
+        insert(i -> new LightAuditedEntity("member" + i));
+    }
+
+    private void insert(IntFunction<Object> entity) {
+        transaction.executeWithoutResult(status -> {
+            for (int i = 0; i < INSERTS; i++) {
+                em.persist(entity.apply(i));
+                if ((i + 1) % BATCH == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+    }
+}
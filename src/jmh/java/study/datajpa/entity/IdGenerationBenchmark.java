@@ -0,0 +1,84 @@
+package study.datajpa.entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.BenchmarkContext;
+
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+// id 생성 방식별 insert 처리량 (ops/s = insert/s)
+// - sequencePerInsert: insert 마다 시퀀스 조회 (allocationSize = 1)
+// - pooledLo: Member, 시퀀스 한 번에 500개 (pooled-lo)
+// - randomUuid: 랜덤 UUID(v4) 문자열 PK
+// - uuidV7: Item, 시간순 UUIDv7 문자열 PK
+// 하나의 트랜잭션에서 INSERTS건을 persist 하고 BATCH건마다 flush/clear 한다.
+@State(Scope.Benchmark)
+public class IdGenerationBenchmark {
+
+    private static final int INSERTS = 1000;
+    private static final int BATCH = 100;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("ids");
+        em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERTS)
+    public void sequencePerInsert() {
+        insert(i -> new SequencePerInsertEntity("member" + i));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERTS)
+    public void pooledLo() {
+        insert(i -> new Member("member" + i, i));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERTS)
+    public void randomUuid() {
+        insert(i -> new RandomUuidEntity(UUID.randomUUID()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERTS)
+    public void uuidV7() {
+        insert(i -> Item.create());
+    }
+
+    private void insert(IntFunction<Object> entity) {
+        transaction.executeWithoutResult(status -> {
+            for (int i = 0; i < INSERTS; i++) {
+                em.persist(entity.apply(i));
+                if ((i + 1) % BATCH == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+    }
+}
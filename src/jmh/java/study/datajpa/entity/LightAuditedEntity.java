@@ -0,0 +1,25 @@
+package study.datajpa.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+// 벤치마크 비교용: BaseEntity(AuditListener, 트랜잭션 단위 작성자 캐시)
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class LightAuditedEntity extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "light_audited_seq_generator")
+    @SequenceGenerator(name = "light_audited_seq_generator", sequenceName = "light_audited_seq", allocationSize = 500)
+    private Long id;
+    private String username;
+
+    public LightAuditedEntity(String username) {
+        this.username = username;
+    }
+}
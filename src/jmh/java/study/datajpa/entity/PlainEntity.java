@@ -0,0 +1,25 @@
+package study.datajpa.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+// 벤치마크 비교용: 감사 정보 없음
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class PlainEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "plain_seq_generator")
+    @SequenceGenerator(name = "plain_seq_generator", sequenceName = "plain_seq", allocationSize = 500)
+    private Long id;
+    private String username;
+
+    public PlainEntity(String username) {
+        this.username = username;
+    }
+}
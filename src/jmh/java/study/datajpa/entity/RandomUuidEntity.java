@@ -0,0 +1,21 @@
+package study.datajpa.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// 벤치마크 비교용: 랜덤 UUID(v4) 문자열 id
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class RandomUuidEntity {
+
+    @Id
+    private String id;
+
+    public RandomUuidEntity(UUID id) {
+        this.id = id.toString();
+    }
+}
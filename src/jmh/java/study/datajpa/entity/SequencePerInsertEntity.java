@@ -0,0 +1,25 @@
+package study.datajpa.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+// 벤치마크 비교용: insert 마다 시퀀스를 한 번씩 조회하는 방식 (allocationSize = 1)
+@Entity
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class SequencePerInsertEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "per_insert_seq_generator")
+    @SequenceGenerator(name = "per_insert_seq_generator", sequenceName = "per_insert_seq", allocationSize = 1)
+    private Long id;
+    private String username;
+
+    public SequencePerInsertEntity(String username) {
+        this.username = username;
+    }
+}
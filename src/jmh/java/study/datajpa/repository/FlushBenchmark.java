@@ -0,0 +1,90 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.BenchmarkContext;
+import study.datajpa.entity.Member;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+// 회원 members명을 영속 상태로 올리고 flush 하는 비용 (더티 체킹)
+// - loadAndFlush: 아무것도 바꾸지 않고 flush -> 향상 없으면 모든 엔티티의 모든 필드를 스냅샷과 비교
+// - loadModifyOneAndFlush: 1%만 변경하고 flush
+// - loadReadOnly: readOnly 힌트 (스냅샷 X, 비교 X)
+// 바이트코드 향상 전/후 비교: ./gradlew jmh -PjmhIncludes=FlushBenchmark [-PnoEnhancement]
+// 엔티티당 메모리: gc.alloc.rate.norm(연산당 할당 byte) / members
+@State(Scope.Benchmark)
+public class FlushBenchmark {
+
+    @Param({"1000", "10000"})
+    int members;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("flush" + members);
+        em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        context.getBean(MemberRepository.class).persistAll(() -> IntStream.range(0, members)
+                .mapToObj(i -> new Member("member" + i, i % 100))
+                .iterator(), 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void loadAndFlush(Blackhole bh) {
+        transaction.executeWithoutResult(status -> {
+            bh.consume(load(false));
+            em.flush();
+            status.setRollbackOnly();
+        });
+    }
+
+    @Benchmark
+    public void loadModifyOneAndFlush(Blackhole bh) {
+        transaction.executeWithoutResult(status -> {
+            List<Member> result = load(false);
+            for (int i = 0; i < result.size(); i += 100) {
+                result.get(i).setAge(result.get(i).getAge() + 1);
+            }
+            em.flush();
+            bh.consume(result);
+            status.setRollbackOnly(); // 매번 같은 데이터로 측정
+        });
+    }
+
+    @Benchmark
+    public void loadReadOnly(Blackhole bh) {
+        transaction.executeWithoutResult(status -> {
+            bh.consume(load(true));
+            em.flush();
+            status.setRollbackOnly();
+        });
+    }
+
+    private List<Member> load(boolean readOnly) {
+        return em.createQuery("select m from Member m", Member.class)
+                .setHint("org.hibernate.readOnly", readOnly)
+                .getResultList();
+    }
+}
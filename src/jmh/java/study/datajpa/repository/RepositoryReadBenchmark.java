@@ -0,0 +1,157 @@
+package study.datajpa.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.BenchmarkContext;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+// 같은 조회를 Spring Data(메서드 이름/@Query/네이티브), 순수 JPA(MemberJpaRepository, MemberQueryRepository)로
+// 각각 실행해서 비교한다. 엔티티 / 인터페이스 프로젝션 / DTO 조회 비용도 함께 비교한다.
+// 모든 조회는 같은 조건(readOnly 트랜잭션 1개)에서 실행하고, 결과의 필드를 실제로 읽어서 지연 평가까지 포함한다.
+@State(Scope.Benchmark)
+public class RepositoryReadBenchmark {
+
+    @Param({"1000", "10000"})
+    int members;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private MemberQueryRepository memberQueryRepository;
+    private TransactionTemplate readOnly;
+
+    private final PageRequest page = PageRequest.of(0, 100);
+    private String username;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("read" + members);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberQueryRepository = context.getBean(MemberQueryRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            teams.add(new Team("team" + i));
+        }
+        teamRepository.saveAll(teams);
+
+        memberRepository.persistAll(() -> IntStream.range(0, members)
+                .mapToObj(i -> {
+                    Member member = new Member("member" + i, i % 100);
+                    member.setTeam(teams.get(i % 100));
+                    return member;
+                })
+                .iterator(), 1000);
+        username = "member" + (members / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // ---- 단건 조회 (username) ----
+
+    @Benchmark
+    public void derivedQuery(Blackhole bh) {
+        consumeMembers(bh, () -> memberRepository.findListByUsername(username));
+    }
+
+    @Benchmark
+    public void namedQuery(Blackhole bh) {
+        consumeMembers(bh, () -> memberRepository.findByUsername(username));
+    }
+
+    @Benchmark
+    public void jpaNamedQuery(Blackhole bh) {
+        consumeMembers(bh, () -> memberJpaRepository.findByUsername(username));
+    }
+
+    @Benchmark
+    public void nativeQuery(Blackhole bh) {
+        consumeMembers(bh, () -> List.of(memberRepository.findByNativeQuery(username)));
+    }
+
+    @Benchmark
+    public void openInterfaceProjection(Blackhole bh) {
+        consume(bh, () -> memberRepository.findProjectionsByUsername(username), UsernameOnly::getUsername);
+    }
+
+    @Benchmark
+    public void closedDtoProjection(Blackhole bh) {
+        consume(bh, () -> memberRepository.findUsernameOnlyByUsername(username), UsernameOnlyDto::getUsername);
+    }
+
+    // ---- 전체 조회 ----
+
+    @Benchmark
+    public void entityGraphFindAll(Blackhole bh) {
+        consumeMembers(bh, memberRepository::findAll);
+    }
+
+    @Benchmark
+    public void jpaFindAll(Blackhole bh) {
+        consumeMembers(bh, memberJpaRepository::findAll);
+    }
+
+    @Benchmark
+    public void queryRepositoryFindAll(Blackhole bh) {
+        consumeMembers(bh, memberQueryRepository::findAllMembers);
+    }
+
+    @Benchmark
+    public void dtoFindAll(Blackhole bh) {
+        consume(bh, memberRepository::findMemberDto, MemberDto::getUsername);
+    }
+
+    // ---- 페이징 (100건) ----
+
+    @Benchmark
+    public void entityPage(Blackhole bh) {
+        consumeMembers(bh, () -> memberRepository.findAll(page).getContent());
+    }
+
+    @Benchmark
+    public void dtoPage(Blackhole bh) {
+        consume(bh, () -> memberRepository.findMemberDtoPage(page).getContent(), MemberDto::getUsername);
+    }
+
+    @Benchmark
+    public void nativeInterfaceProjectionPage(Blackhole bh) {
+        consume(bh, () -> memberRepository.findByNativeProjection(page).getContent(), MemberProjection::getUsername);
+    }
+
+    private void consumeMembers(Blackhole bh, Supplier<List<Member>> query) {
+        consume(bh, query, Member::getUsername);
+    }
+
+    private <T> void consume(Blackhole bh, Supplier<List<T>> query, Function<T, String> field) {
+        readOnly.executeWithoutResult(status -> {
+            for (T row : query.get()) {
+                bh.consume(field.apply(row));
+            }
+        });
+    }
+}
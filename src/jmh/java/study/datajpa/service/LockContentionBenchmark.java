@@ -0,0 +1,79 @@
+package study.datajpa.service;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+import study.datajpa.BenchmarkContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// 64개 스레드가 hotRows개의 회원 나이를 동시에 1씩 올린다. 비관적 락(for update) vs 낙관적 락(@Version + 재시도)
+// hotRows가 작을수록 경합이 심하다. 재시도 한도를 넘긴 경우는 failed로 따로 집계한다.
+@State(Scope.Benchmark)
+@Threads(64)
+public class LockContentionBenchmark {
+
+    @Param({"1", "16", "256"})
+    int hotRows;
+
+    private ConfigurableApplicationContext context;
+    private MemberService memberService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("lock" + hotRows,
+                "spring.datasource.url=jdbc:h2:mem:lock" + hotRows + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                "spring.datasource.hikari.maximum-pool-size=64");
+        memberService = context.getBean(MemberService.class);
+
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < hotRows; i++) {
+            members.add(new Member("hot" + i, 0));
+        }
+        context.getBean(MemberRepository.class).persistAll(members, 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Outcome {
+        public long succeeded;
+        public long failed;
+    }
+
+    @Benchmark
+    public void pessimistic(Outcome outcome) {
+        memberService.increaseAgeWithPessimisticLock(randomHotRow());
+        outcome.succeeded++;
+    }
+
+    @Benchmark
+    public void optimisticWithRetry(Outcome outcome) {
+        try {
+            memberService.increaseAge(randomHotRow());
+            outcome.succeeded++;
+        } catch (OptimisticLockingFailureException e) {
+            outcome.failed++;
+        }
+    }
+
+    private String randomHotRow() {
+        return "hot" + ThreadLocalRandom.current().nextInt(hotRows);
+    }
+}
@@ -20,6 +20,7 @@ public class DataJpaApplication {
 	@Bean
 	public AuditorAware<String> auditorProvider() {
 		//실제로는 Spring Security를 쓴다면 아이디를 꺼내와야한다. 혹은 세션 SecurityContextHolder().~~
+		// BaseEntity(AuditListener)는 트랜잭션당 1번, Item/BaseTimeEntity(AuditingEntityListener)는 엔티티마다 호출한다.
 		return () -> Optional.of(UUID.randomUUID().toString());
 	}
 
@@ -0,0 +1,47 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+// @Async("queryExecutor") 레파지토리 메서드를 실행하는 전용 스레드 풀
+// 스레드 수와 큐 크기를 제한해서 동시 조회가 커넥션 풀을 모두 차지하지 않게 한다.
+// 큐까지 가득 차면 호출한 스레드에서 직접 실행한다. (요청을 버리지 않고 자연스럽게 속도를 늦춘다)
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor queryExecutor(@Value("${app.query-executor.pool-size:8}") int poolSize,
+                                                @Value("${app.query-executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("query-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(AsyncConfig::withRequestAttributes);
+        return executor;
+    }
+
+    // 요청 정보를 작업 스레드로 넘긴다. ReplicationRoutingDataSource가 클라이언트(X-Client-Id 헤더, 세션)의 마지막 쓰기 시각을 보고 읽기를 라우팅한다.
+    // CallerRunsPolicy로 호출 스레드에서 실행될 수도 있으므로 원래 값을 되돌려 놓는다.
+    private static Runnable withRequestAttributes(Runnable task) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        return () -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(request);
+            try {
+                task.run();
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
+            }
+        };
+    }
+}
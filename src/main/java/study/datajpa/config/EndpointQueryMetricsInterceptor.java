@@ -0,0 +1,54 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// 컨트롤러 endpoint별 SQL 수/JDBC 시간/조회 행 수
+// ex) /actuator/metrics/http.jdbc.statements?tag=uri:/members2
+@Component
+@RequiredArgsConstructor
+public class EndpointQueryMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = EndpointQueryMetricsInterceptor.class.getName() + ".scope";
+
+    private final MeterRegistry registry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            request.setAttribute(SCOPE_ATTRIBUTE, QueryScope.open(request.getMethod() + " " + request.getRequestURI()));
+        }
+        return true;
+    }
+
+    // 비동기 응답(CompletableFuture 등)은 요청 스레드를 반납하는 시점까지 기록한다.
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        finish(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        finish(request);
+    }
+
+    private void finish(HttpServletRequest request) {
+        QueryScope scope = (QueryScope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope == null) {
+            return;
+        }
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        scope.recordTo(registry, "http",
+                Tags.of("uri", pattern == null ? "UNKNOWN" : pattern.toString(), "method", request.getMethod()));
+        scope.close();
+    }
+}
@@ -0,0 +1,21 @@
+package study.datajpa.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// 로컬/테스트용: 기동할 때마다 스키마를 비우고 마이그레이션을 처음부터 다시 적용한다. (예전 ddl-auto: create와 같은 효과)
+// spring.flyway.clean-disabled: false 도 함께 설정해야 하므로 둘 다 local 프로필(application.yml)에만 둔다. 운영에서는 절대 켜지 않는다.
+@Configuration
+@ConditionalOnProperty(name = "app.flyway.clean-on-start", havingValue = "true")
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy cleanMigrateStrategy() {
+        return flyway -> {
+            flyway.clean();
+            flyway.migrate();
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// 가상 스레드를 쓰면 수천 개의 요청이 동시에 커넥션 풀 앞에서 기다리게 된다.
+// 커넥션 풀 크기만큼만 DB를 쓰는 요청을 들여보내고(공정한 순서), 제한 시간 안에 차례가 오지 않으면 503으로 빨리 실패시킨다.
+// 허가는 응답이 끝날 때 반납한다.
+// - 비동기 요청(/members/overview): doFilter가 먼저 반환되고 queryExecutor에서 조회가 계속되므로 AsyncListener.onComplete에서 반납
+// - 스트리밍 내보내기(/members/export): 다운로드가 끝날 때까지 커넥션 하나를 잡고 있으므로 그동안 허가 하나를 차지한다.
+@Component
+@ConditionalOnProperty(name = "app.jdbc.concurrency-limit.enabled", havingValue = "true")
+public class JdbcConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    public JdbcConcurrencyLimitFilter(@Value("${app.jdbc.concurrency-limit.permits}") int permits,
+                                      @Value("${app.jdbc.concurrency-limit.acquire-timeout:2s}") Duration acquireTimeout,
+                                      MeterRegistry registry) {
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        Gauge.builder("jdbc.concurrency.permits.available", this.permits, Semaphore::availablePermits)
+                .description("Requests that can still enter the JDBC-bound endpoints")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/members");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "too many concurrent requests");
+            return;
+        }
+
+        boolean asyncStarted = false;
+        try {
+            filterChain.doFilter(request, response);
+            asyncStarted = request.isAsyncStarted();
+            if (asyncStarted) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+            }
+        } finally {
+            if (!asyncStarted) {
+                permits.release();
+            }
+        }
+    }
+
+    // 비동기 처리가 끝나고(타임아웃/에러 처리 포함) 응답이 완료되면 한 번 호출된다.
+    private class ReleaseOnComplete implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permits.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this); // 다시 startAsync 하면 리스너가 지워지므로 다시 등록
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package study.datajpa.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// @Transactional보다 바깥에서 실행되어야 재시도할 때마다 새 트랜잭션(새 영속성 컨텍스트)으로 다시 읽는다.
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class OptimisticLockRetryAspect {
+
+    @Around("@annotation(retry)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnOptimisticLock retry) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed(); // 바깥 트랜잭션에 참여하면 재시도해도 같은 트랜잭션이므로 의미가 없다.
+        }
+
+        long backoff = retry.backoffMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= retry.maxAttempts()) {
+                    throw e;
+                }
+                Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff + 1));
+                backoff = Math.min(backoff * 2, retry.maxBackoffMillis());
+            }
+        }
+    }
+}
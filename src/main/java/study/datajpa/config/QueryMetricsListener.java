@@ -0,0 +1,100 @@
+package study.datajpa.config;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+// p6spy가 가로챈 모든 JDBC 실행을 현재 QueryScope와 Micrometer에 기록한다.
+// JdbcEventListener 빈은 p6spy-spring-boot-starter가 자동으로 등록한다.
+@Slf4j
+@Component
+public class QueryMetricsListener extends SimpleJdbcEventListener {
+
+    private static final int MAX_SLOW_QUERIES = 100;
+    private static final int MAX_DISTINCT_SQL = 10_000;
+
+    private final long slowQueryNanos;
+    private final Timer statementTimer;
+    private final Counter slowQueryCounter;
+    private final Deque<SlowQuery> slowQueries = new ConcurrentLinkedDeque<>();
+    // 서로 다른 SQL 문자열 (파라미터 값 제외): 계속 늘어나면 IN 절 크기처럼 SQL이 매번 달라지는 곳이 있다는 뜻이다.
+    private final Set<String> distinctSql = ConcurrentHashMap.newKeySet();
+
+    public QueryMetricsListener(MeterRegistry registry,
+                                @Value("${app.query-metrics.slow-query-threshold:100ms}") Duration slowQueryThreshold) {
+        this.slowQueryNanos = slowQueryThreshold.toNanos();
+        this.statementTimer = Timer.builder("jdbc.statements")
+                .description("JDBC statement execution time")
+                .register(registry);
+        this.slowQueryCounter = Counter.builder("jdbc.statements.slow")
+                .description("JDBC statements slower than app.query-metrics.slow-query-threshold")
+                .register(registry);
+        Gauge.builder("jdbc.statements.distinct", distinctSql, Set::size)
+                .description("Distinct SQL strings executed (capped at " + MAX_DISTINCT_SQL + ")")
+                .register(registry);
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        QueryScope.recordStatement(timeElapsedNanos);
+        statementTimer.record(timeElapsedNanos, TimeUnit.NANOSECONDS);
+        if (distinctSql.size() < MAX_DISTINCT_SQL) {
+            distinctSql.add(statementInformation.getSql());
+        }
+
+        if (timeElapsedNanos >= slowQueryNanos) {
+            slowQueryCounter.increment();
+            QueryScope scope = QueryScope.current();
+            SlowQuery slowQuery = new SlowQuery(LocalDateTime.now(), TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos),
+                    scope == null ? null : scope.getName(), statementInformation.getSqlWithValues());
+            log.warn("slow query {}ms [{}] {}", slowQuery.getElapsedMillis(), slowQuery.getScope(), slowQuery.getSql());
+
+            slowQueries.addFirst(slowQuery);
+            while (slowQueries.size() > MAX_SLOW_QUERIES) {
+                slowQueries.pollLast();
+            }
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos,
+                                     boolean hasNext, SQLException e) {
+        if (hasNext) {
+            QueryScope.recordRow();
+        }
+    }
+
+    // 최근 느린 쿼리 (바인딩된 파라미터 포함), 최신 순
+    public List<SlowQuery> getSlowQueries() {
+        return new ArrayList<>(slowQueries);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class SlowQuery {
+        private final LocalDateTime executedAt;
+        private final long elapsedMillis;
+        private final String scope;
+        private final String sql;
+    }
+}
@@ -0,0 +1,104 @@
+package study.datajpa.config;
+
+import study.datajpa.config.QueryPlanValidator.Violation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// H2 EXPLAIN 결과에서 위반을 찾는다. (QueryPlanValidator)
+// 조인한 테이블마다 아래 블록이 나온다. inner join은 조건을 WHERE로 옮기고 ON 1=1로 표시하므로 ON 절만 보면 안 된다.
+//   INNER JOIN "PUBLIC"."TEAM" "T1_0"
+//       /* PUBLIC.PRIMARY_KEY_2: TEAM_ID = "M1_0"."TEAM_ID" */   <- 접근 경로(인덱스: 조건 또는 tableScan)
+//       ON 1=1
+// 접근 경로의 인덱스 조건, ON 절, WHERE 조건 중 하나라도 조인한 테이블과 다른 테이블을 함께 참조하면 조인 조건이 있는 것이다.
+final class QueryPlanAnalyzer {
+
+    private static final Pattern JOIN = Pattern.compile("\\bJOIN\\b");
+    // "PUBLIC"."TEAM" "T1_0"
+    private static final Pattern JOINED_TABLE = Pattern.compile("^\\s*\"[^\"]+\"\\.\"([^\"]+)\"(?:\\s+\"([^\"]+)\")?");
+    // "M1_0"."TEAM_ID" -> M1_0
+    private static final Pattern QUALIFIER = Pattern.compile("\"([^\"]+)\"\\.\"[^\"]+\"");
+    private static final Pattern WHERE = Pattern.compile(
+            "^WHERE\\s+(.*?)(?=^(?:GROUP BY|HAVING|ORDER BY|OFFSET|FETCH|FOR UPDATE)\\b|\\z)",
+            Pattern.MULTILINE | Pattern.DOTALL);
+    private static final Pattern AND = Pattern.compile("\\bAND\\b");
+
+    private QueryPlanAnalyzer() {
+    }
+
+    static List<Violation.Type> analyze(String sql, String plan) {
+        String upperPlan = plan.toUpperCase(Locale.ROOT);
+        String lowerSql = sql.toLowerCase(Locale.ROOT);
+        List<Violation.Type> violations = new ArrayList<>();
+
+        if (hasCartesianJoin(upperPlan)) {
+            violations.add(Violation.Type.CARTESIAN_JOIN);
+        }
+        if (lowerSql.contains(" where ") && upperPlan.contains(".TABLESCAN")) {
+            violations.add(Violation.Type.FULL_SCAN);
+        }
+        if (lowerSql.contains(" order by ") && !upperPlan.contains("INDEX SORTED")) {
+            violations.add(Violation.Type.UNINDEXED_SORT);
+        }
+        return violations;
+    }
+
+    private static boolean hasCartesianJoin(String plan) {
+        List<String> whereConditions = whereConditions(plan);
+        String[] joins = JOIN.split(plan);
+        for (int i = 1; i < joins.length; i++) {
+            String[] lines = joins[i].split("\n");
+            Matcher table = JOINED_TABLE.matcher(lines[0]);
+            if (!table.find()) {
+                continue; // 서브쿼리 조인 등은 검사하지 않는다.
+            }
+            String alias = table.group(2) != null ? table.group(2) : table.group(1);
+            String access = "";
+            String on = "";
+            for (int j = 1; j < lines.length; j++) {
+                String line = lines[j].trim();
+                if (access.isEmpty() && line.startsWith("/*")) {
+                    access = indexCondition(line);
+                } else if (on.isEmpty() && line.startsWith("ON ")) {
+                    on = line;
+                }
+            }
+            boolean joinCondition = referencesOtherTable(access, alias) || referencesOtherTable(on, alias)
+                    || whereConditions.stream().anyMatch(condition ->
+                    references(condition, alias) && referencesOtherTable(condition, alias));
+            if (!joinCondition) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // /* PUBLIC.PRIMARY_KEY_2: TEAM_ID = "M1_0"."TEAM_ID" */ -> TEAM_ID = "M1_0"."TEAM_ID" (tableScan이면 빈 문자열)
+    private static String indexCondition(String comment) {
+        int colon = comment.indexOf(':');
+        return colon < 0 ? "" : comment.substring(colon + 1);
+    }
+
+    private static List<String> whereConditions(String plan) {
+        Matcher where = WHERE.matcher(plan);
+        return where.find() ? Arrays.asList(AND.split(where.group(1))) : List.of();
+    }
+
+    private static boolean references(String condition, String alias) {
+        return condition.contains("\"" + alias + "\".");
+    }
+
+    private static boolean referencesOtherTable(String condition, String alias) {
+        Matcher qualifier = QUALIFIER.matcher(condition);
+        while (qualifier.find()) {
+            if (!qualifier.group(1).equals(alias)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,40 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+// Hibernate 쿼리 플랜 캐시(JPQL -> SQL 변환 결과) hit/miss (hibernate.generate_statistics 필요)
+// hit 비율이 낮으면 IN 절 크기, 문자열로 조립한 JPQL처럼 매번 다른 쿼리가 만들어지는 곳이 있다는 뜻이다.
+// 실제로 실행된 서로 다른 SQL 수는 jdbc.statements.distinct (QueryMetricsListener)
+@Component
+@RequiredArgsConstructor
+public class QueryPlanCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory emf;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        FunctionCounter.builder("hibernate.query.plan.cache.requests", statistics, Statistics::getQueryPlanCacheHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("hibernate.query.plan.cache.requests", statistics, Statistics::getQueryPlanCacheMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("hibernate.query.plan.cache.hit.ratio", statistics, QueryPlanCacheMetrics::hitRatio)
+                .register(registry);
+    }
+
+    private static double hitRatio(Statistics statistics) {
+        long hit = statistics.getQueryPlanCacheHitCount();
+        long total = hit + statistics.getQueryPlanCacheMissCount();
+        return total == 0 ? Double.NaN : (double) hit / total;
+    }
+}
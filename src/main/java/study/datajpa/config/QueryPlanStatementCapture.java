@@ -0,0 +1,40 @@
+package study.datajpa.config;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// QueryPlanValidator가 레파지토리 메서드를 실행하는 동안 나간 SQL(바인딩 값 포함)을 모은다.
+// p6spy는 DataSource를 만들 때 JdbcEventListener 빈을 모두 주입받으므로, 이 빈이 DataSource가 필요한 빈
+// (레파지토리, EntityManagerFactory, JdbcTemplate 등)에 의존하면 순환 참조가 된다. -> 의존성 없이 SQL만 모으고 검사는 QueryPlanValidator가 한다.
+@Component
+@ConditionalOnProperty(name = "app.query-plan-validator.enabled", havingValue = "true")
+class QueryPlanStatementCapture extends SimpleJdbcEventListener {
+
+    // 검사 중인 스레드에서 실행된 SQL만 모은다.
+    private final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        List<String> statements = captured.get();
+        if (statements != null) {
+            statements.add(statementInformation.getSqlWithValues());
+        }
+    }
+
+    List<String> capture(Runnable action) {
+        List<String> statements = new ArrayList<>();
+        captured.set(statements);
+        try {
+            action.run();
+        } finally {
+            captured.remove();
+        }
+        return statements;
+    }
+}
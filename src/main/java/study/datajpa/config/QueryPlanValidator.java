@@ -0,0 +1,237 @@
+package study.datajpa.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.BulkProgressListener;
+import study.datajpa.repository.CountStrategy;
+import study.datajpa.repository.MemberCursor;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// 기동 시점(또는 테스트)에 MemberRepository/TeamRepository의 조회 메서드를 대표 파라미터로 실제 실행하고,
+// 실행된 SQL을 H2 EXPLAIN으로 검사한다. (롤백되는 트랜잭션 안에서 실행, 판단은 QueryPlanAnalyzer)
+// 선언한 쿼리 메서드(@Query, @NamedQuery, 메서드 이름 쿼리)뿐 아니라 상속한 JpaRepository/JpaSpecificationExecutor 메서드와
+// 커스텀 구현(MemberRepositoryCustom 등) 메서드도 검사한다.
+// - CARTESIAN_JOIN: 조인 조건 없이 테이블 전체를 조인 (ex. on 절이 빠진 left join)
+// - FULL_SCAN: where 조건이 있는데도 테이블 전체를 읽음 (인덱스 없음)
+// - UNINDEXED_SORT: order by를 인덱스 순서로 처리하지 못함
+// 위반이 max-violations보다 많으면 기동을 실패시킨다. @Query 문법 검사만으로는 이런 문제를 찾을 수 없다.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.query-plan-validator.enabled", havingValue = "true")
+public class QueryPlanValidator {
+
+    private static final List<Class<?>> REPOSITORIES = List.of(MemberRepository.class, TeamRepository.class);
+
+    // 대표 파라미터로는 결과가 달라지는 메서드
+    // bulkAgePlusChunked: 청크마다 REQUIRES_NEW로 커밋되어 롤백되지 않으므로 아무 행도 바뀌지 않는 age로 실행한다.
+    private static final Map<String, Object[]> ARGUMENTS = Map.of(
+            "bulkAgePlusChunked", new Object[]{Integer.MAX_VALUE, 0L, 100, BulkProgressListener.NONE});
+
+    private static final Object UNRESOLVED = new Object();
+
+    private final QueryPlanStatementCapture capture;
+    private final Map<Class<?>, Object> repositories;
+    private final EntityManagerFactory emf;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final int maxViolations;
+
+    @Getter
+    private final List<Violation> violations = new ArrayList<>();
+    @Getter
+    private final List<String> checkedMethods = new ArrayList<>();
+    @Getter
+    private int checkedQueries;
+
+    public QueryPlanValidator(QueryPlanStatementCapture capture,
+                              MemberRepository memberRepository, TeamRepository teamRepository,
+                              EntityManagerFactory emf, JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.query-plan-validator.max-violations:0}") int maxViolations) {
+        this.capture = capture;
+        this.repositories = Map.of(MemberRepository.class, memberRepository, TeamRepository.class, teamRepository);
+        this.emf = emf;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.maxViolations = maxViolations;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void validate() {
+        for (Class<?> repositoryType : REPOSITORIES) {
+            for (Method method : queryMethods(repositoryType)) {
+                check(repositoryType, repositories.get(repositoryType), method);
+            }
+        }
+
+        violations.forEach(violation -> log.warn("query plan {} {}\n{}\n{}",
+                violation.getType(), violation.getQuery(), violation.getSql(), violation.getPlan()));
+        log.info("query plan validator: {} methods, {} queries, {} violations",
+                checkedMethods.size(), checkedQueries, violations.size());
+        if (violations.size() > maxViolations) {
+            throw new IllegalStateException("query plan violations " + violations.size()
+                    + " > app.query-plan-validator.max-violations " + maxViolations + ": " + violations);
+        }
+    }
+
+    // getMethods(): 레파지토리 인터페이스가 상속한 인터페이스(Spring Data 기본 인터페이스, 커스텀 구현 프래그먼트)의 메서드까지 모두
+    // 같은 시그니처를 다시 선언한 경우(ex. @EntityGraph findAll)는 하나만 검사한다. (프록시에서는 같은 메서드로 실행된다)
+    private static Collection<Method> queryMethods(Class<?> repositoryType) {
+        Map<String, Method> methods = new TreeMap<>(); // 로그를 읽기 쉽게 이름 순으로
+        for (Method method : repositoryType.getMethods()) {
+            if (isQueryMethod(method)) {
+                methods.merge(signature(method), method, (existing, candidate) ->
+                        existing.getDeclaringClass().isAssignableFrom(candidate.getDeclaringClass()) ? candidate : existing);
+            }
+        }
+        return methods.values();
+    }
+
+    // @Async(CompletableFuture)는 같은 쿼리를 가진 동기 메서드로 검사한다.
+    // save*/delete*/flush는 조회 계획을 볼 대상이 아니다. (엔티티 파라미터가 필요한 persist/update는 대표 파라미터가 없어 건너뛴다)
+    private static boolean isQueryMethod(Method method) {
+        String name = method.getName();
+        return !method.isDefault() && !Modifier.isStatic(method.getModifiers())
+                && !CompletableFuture.class.isAssignableFrom(method.getReturnType())
+                && !name.startsWith("save") && !name.startsWith("delete") && !name.startsWith("flush");
+    }
+
+    private static String signature(Method method) {
+        return method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    private void check(Class<?> repositoryType, Object repository, Method method) {
+        String name = repositoryType.getSimpleName() + "." + signature(method);
+        Object[] args = representativeArgs(repositoryType, method);
+        if (args == null) {
+            log.info("query plan validator: skip {} (no representative parameters)", name);
+            return;
+        }
+        checkedMethods.add(name);
+
+        // 2차 캐시/쿼리 캐시에 걸리면 SQL이 실행되지 않는다.
+        emf.getCache().evictAll();
+        emf.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+
+        transaction.executeWithoutResult(status -> {
+            status.setRollbackOnly(); // bulk update 등도 실제로 반영하지 않는다.
+            List<String> statements = capture.capture(() -> invoke(name, repository, method, args));
+            for (String sql : statements) {
+                checkedQueries++;
+                String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+                QueryPlanAnalyzer.analyze(sql, plan)
+                        .forEach(type -> violations.add(new Violation(name, type, sql, plan)));
+            }
+        });
+    }
+
+    private static void invoke(String name, Object repository, Method method, Object[] args) {
+        try {
+            Object result = method.invoke(repository, args);
+            if (result instanceof Stream<?> stream) {
+                stream.close(); // streamMemberDto 등: 커서(ResultSet) 반납
+            }
+        } catch (InvocationTargetException | IllegalAccessException e) {
+            // 결과 건수 등 데이터 때문에 실패해도 SQL은 이미 실행됐으므로 실행 계획은 검사한다.
+            log.info("query plan validator: {} failed with representative parameters: {}", name, e.getCause());
+        }
+    }
+
+    // 초기 데이터(MemberController.init: user0 ~ user99, age 0 ~ 99)에 있는 값을 쓴다.
+    // 제네릭 파라미터(ID, Iterable<ID>)는 레파지토리 타입 기준으로 풀어서 MemberRepository의 ID = Long 처럼 구한다.
+    private static Object[] representativeArgs(Class<?> repositoryType, Method method) {
+        Object[] fixed = ARGUMENTS.get(method.getName());
+        if (fixed != null) {
+            return fixed.clone();
+        }
+        Object[] args = new Object[method.getParameterCount()];
+        for (int i = 0; i < args.length; i++) {
+            Object arg = representativeArg(ResolvableType.forMethodParameter(method, i, repositoryType));
+            if (arg == UNRESOLVED) {
+                return null;
+            }
+            args[i] = arg;
+        }
+        return args;
+    }
+
+    private static Object representativeArg(ResolvableType parameter) {
+        Class<?> type = parameter.toClass();
+        if (type == String.class) {
+            return "user1";
+        } else if (type == int.class || type == Integer.class) {
+            return 10;
+        } else if (type == long.class || type == Long.class) {
+            return 1L;
+        } else if (Iterable.class.isAssignableFrom(type)) {
+            Class<?> element = parameter.as(Iterable.class).resolveGeneric(0);
+            if (element == String.class) {
+                return List.of("user1", "user2");
+            } else if (element == Long.class) {
+                return List.of(1L, 2L);
+            }
+            return UNRESOLVED;
+        } else if (type == Pageable.class) {
+            return PageRequest.of(0, 10);
+        } else if (type == Sort.class) {
+            return Sort.unsorted();
+        } else if (type == Specification.class || type == MemberCursor.class) {
+            return null; // 조건 없음, 첫 페이지
+        } else if (type == CountStrategy.class) {
+            return CountStrategy.exact();
+        } else if (type == BulkProgressListener.class) {
+            return BulkProgressListener.NONE;
+        }
+        return UNRESOLVED;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Violation {
+        private final String query;
+        private final Type type;
+        private final String sql;
+        private final String plan;
+
+        public enum Type {
+            CARTESIAN_JOIN, FULL_SCAN, UNINDEXED_SORT
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + query;
+        }
+    }
+}
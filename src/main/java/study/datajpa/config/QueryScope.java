@@ -0,0 +1,96 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+// 한 작업 단위(HTTP 요청, 레파지토리 메서드 호출) 동안 실행된 SQL 수, JDBC 시간, 조회한 행 수를 모은다.
+// 스레드마다 스택처럼 쌓이므로 요청 안에서 호출된 레파지토리 메서드의 SQL은 요청 scope에도 함께 더해진다.
+public final class QueryScope implements AutoCloseable {
+
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final QueryScope parent;
+    private int statements;
+    private long elapsedNanos;
+    private long rows;
+
+    private QueryScope(String name, QueryScope parent) {
+        this.name = name;
+        this.parent = parent;
+    }
+
+    public static QueryScope open(String name) {
+        QueryScope scope = new QueryScope(name, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static QueryScope current() {
+        return CURRENT.get();
+    }
+
+    static void recordStatement(long elapsedNanos) {
+        for (QueryScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statements++;
+            scope.elapsedNanos += elapsedNanos;
+        }
+    }
+
+    static void recordRow() {
+        for (QueryScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.rows++;
+        }
+    }
+
+    // ex) prefix = "repository" -> repository.jdbc.statements, repository.jdbc.time, repository.jdbc.rows
+    public void recordTo(MeterRegistry registry, String prefix, Iterable<Tag> tags) {
+        DistributionSummary.builder(prefix + ".jdbc.statements")
+                .description("JDBC statements executed per call")
+                .tags(tags)
+                .register(registry)
+                .record(statements);
+        Timer.builder(prefix + ".jdbc.time")
+                .description("Total JDBC execution time per call")
+                .tags(tags)
+                .register(registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(prefix + ".jdbc.rows")
+                .description("Rows fetched per call")
+                .tags(tags)
+                .register(registry)
+                .record(rows);
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() != this) {
+            return;
+        }
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+}
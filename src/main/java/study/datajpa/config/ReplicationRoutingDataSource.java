@@ -0,0 +1,122 @@
+package study.datajpa.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// @Transactional(readOnly = true) 트랜잭션은 replica로, 나머지는 primary로 보낸다.
+// 트랜잭션이 시작된 뒤(readOnly 여부가 정해진 뒤)에 커넥션을 골라야 하므로 LazyConnectionDataSourceProxy로 감싸서 사용한다.
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    // 클라이언트가 매 요청 보내는 식별자. 쿠키를 저장하지 않는 클라이언트(k6, 서비스 간 호출)도 이 헤더로 read-your-writes를 보장받는다.
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    // 마지막 쓰기 시각을 기억하는 클라이언트 수가 이보다 많아지면 복제 지연이 지난 항목을 지운다.
+    private static final int MAX_TRACKED_CLIENTS = 10_000;
+
+    // 클라이언트(CLIENT_ID_HEADER, 없으면 이미 있는 HTTP 세션)가 마지막으로 쓰기 트랜잭션을 커밋한 시각 (epoch millis)
+    // 세션은 새로 만들지 않는다. 헤더도 세션도 없는 요청은 쓰기 직후의 읽기도 replica로 간다.
+    // 인스턴스마다 따로 기억하므로 여러 대로 띄우면 같은 클라이언트의 요청이 같은 인스턴스로 가야 한다. (sticky routing)
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    // 요청 밖(테스트, 배치 등)에서는 같은 스레드 = 같은 호출자로 본다.
+    private final ThreadLocal<Long> lastWriteWithoutRequest = new ThreadLocal<>();
+    private final long replicaLagMillis;
+
+    public ReplicationRoutingDataSource(DataSource primary, DataSource replica, Duration replicaLag) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.replicaLagMillis = replicaLag.toMillis();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY; // 트랜잭션 밖(스키마 생성, 트랜잭션 없는 조회 등)은 항상 primary
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            stampOnCommit();
+            return PRIMARY;
+        }
+        // 방금 쓴 데이터는 replica에 아직 반영되지 않았을 수 있으므로(복제 지연) 잠시 동안은 primary에서 읽는다.
+        Long lastWriteMillis = lastWrite();
+        if (lastWriteMillis != null && System.currentTimeMillis() - lastWriteMillis < replicaLagMillis) {
+            return PRIMARY;
+        }
+        return REPLICA;
+    }
+
+    // 커넥션을 얻은 시각이 아니라 커밋된 시각부터 복제 지연을 센다. (롤백되면 기록하지 않는다)
+    private void stampOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.getSynchronizations().stream().anyMatch(LastWriteStamp.class::isInstance)) {
+            return;
+        }
+        // 커밋 시점에는 요청 정보가 없을 수 있으므로(다른 스레드에서 커밋 등) 지금 잡아 둔다.
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        TransactionSynchronizationManager.registerSynchronization(new LastWriteStamp(request != null, clientKey(request)));
+    }
+
+    private Long lastWrite() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return lastWriteWithoutRequest.get();
+        }
+        String client = clientKey(request);
+        return client == null ? null : lastWrites.get(client);
+    }
+
+    private static String clientKey(RequestAttributes request) {
+        if (!(request instanceof ServletRequestAttributes servletRequest)) {
+            return null;
+        }
+        HttpServletRequest httpRequest = servletRequest.getRequest();
+        String clientId = httpRequest.getHeader(CLIENT_ID_HEADER);
+        if (StringUtils.hasText(clientId)) {
+            return "client:" + clientId;
+        }
+        HttpSession session = httpRequest.getSession(false);
+        return session == null ? null : "session:" + session.getId();
+    }
+
+    private class LastWriteStamp implements TransactionSynchronization {
+
+        private final boolean inRequest;
+        private final String client;
+
+        LastWriteStamp(boolean inRequest, String client) {
+            this.inRequest = inRequest;
+            this.client = client;
+        }
+
+        @Override
+        public void afterCommit() {
+            long now = System.currentTimeMillis();
+            if (!inRequest) {
+                lastWriteWithoutRequest.set(now);
+                return;
+            }
+            if (client == null) {
+                return; // 식별할 수 없는 클라이언트
+            }
+            // 같은 클라이언트의 다음 요청(다른 스레드, 다른 커넥션에서 처리되어도)이 primary에서 읽게 한다.
+            lastWrites.put(client, now);
+            if (lastWrites.size() > MAX_TRACKED_CLIENTS) {
+                lastWrites.values().removeIf(lastWrite -> now - lastWrite >= replicaLagMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.MemberRepository;
+
+// 레파지토리 메서드별 SQL 수/JDBC 시간/조회 행 수
+// ex) /actuator/metrics/repository.jdbc.statements?tag=method:findAll
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryQueryMetricsAspect {
+
+    private final MeterRegistry registry;
+
+    @Around("target(study.datajpa.repository.MemberRepository) || target(study.datajpa.repository.TeamRepository)")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = joinPoint.getTarget() instanceof MemberRepository ? "MemberRepository" : "TeamRepository";
+        String method = joinPoint.getSignature().getName();
+
+        try (QueryScope scope = QueryScope.open(repository + "." + method)) {
+            try {
+                return joinPoint.proceed();
+            } finally {
+                scope.recordTo(registry, "repository", Tags.of("repository", repository, "method", method));
+            }
+        }
+    }
+}
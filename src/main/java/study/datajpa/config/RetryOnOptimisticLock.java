@@ -0,0 +1,19 @@
+package study.datajpa.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 낙관적 락 충돌(OptimisticLockingFailureException) 시 메서드를 새 트랜잭션으로 다시 실행한다.
+// 재시도 간격은 backoffMillis부터 두 배씩 늘어나며(최대 maxBackoffMillis), 동시에 재시도하지 않도록 jitter를 더한다.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnOptimisticLock {
+
+    int maxAttempts() default 5;
+
+    long backoffMillis() default 10;
+
+    long maxBackoffMillis() default 500;
+}
@@ -0,0 +1,35 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+
+// Hibernate 2차 캐시 region(JCache)별 hit/miss/put/eviction을 Micrometer에 등록한다.
+// ex) /actuator/metrics/cache.evictions?tag=cache:study.datajpa.entity.Team
+// region 단위 요청 수는 hibernate-micrometer가 hibernate.second.level.cache.* 로 따로 노출한다.
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory emf;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        RegionFactory regionFactory = emf.unwrap(SessionFactoryImplementor.class).getCache().getRegionFactory();
+        if (!(regionFactory instanceof JCacheRegionFactory jCacheRegionFactory)) {
+            return; // 2차 캐시를 끈 경우
+        }
+        CacheManager cacheManager = jCacheRegionFactory.getCacheManager();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            JCacheMetrics.monitor(registry, cacheManager.getCache(cacheName));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package study.datajpa.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// /actuator/slowqueries: 최근 느린 쿼리를 바인딩된 파라미터와 함께 보여준다.
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final QueryMetricsListener queryMetricsListener;
+
+    @ReadOperation
+    public List<QueryMetricsListener.SlowQuery> slowQueries() {
+        return queryMetricsListener.getSlowQueries();
+    }
+}
@@ -1,34 +1,70 @@
 package study.datajpa.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberOverviewDto;
+import study.datajpa.dto.MemberSliceDto;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.CountStrategy;
+import study.datajpa.repository.MemberCursor;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.service.MemberLookup;
 
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_PAGE_SIZE = 2000; // application.yml의 max-page-size와 동일
+
     private final MemberRepository memberRepository;
+    private final TeamRepository teamRepository;
+    private final MemberLookup memberLookup;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.fetch-size:500}")
+    private int exportFetchSize;
 
+    // 같은 id 동시 요청은 하나의 SELECT 결과를 함께 쓴다. (MemberLookup)
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") Long id) {
-        Member member = memberRepository.findById(id).get();
-        return member.getUsername();
+        return memberLookup.findById(id).orElseThrow().getUsername();
+    }
+
+    @GetMapping("/members/username/{username}")
+    public List<MemberDto> findMembersByUsername(@PathVariable("username") String username) {
+        return memberLookup.findByUsername(username);
     }
 
     // 도메인 클래스 컨버터 id를 받으면 회원 엔티티 객체를 반환
     // 하지만 복잡해지면 쓰기 어렵다.
     // 또한 조회용으로만 써야한다. -> 트랜잭션이 없는 범위에서 엔티티를 조회했으므로 엔티티를 변경해도 DB에 반영되지 않는다.
+    // 컨버터가 요청마다 엔티티를 직접 조회하므로 조회 합치기(MemberLookup)가 적용되지 않는다. 요청이 몰리는 조회는 /members/{id}를 쓴다.
     @GetMapping("/members2/{id}")
     public String findMember2(@PathVariable("id") Member member) {
         return member.getUsername();
@@ -39,25 +75,125 @@ public class MemberController {
     // size: 한 페이지에 노출할 데이터 건수
     // sort: 정렬 조건을 정의
     // default 값 변경: 글로벌은 yml에서 설정, 특정 설정은 @PageableDefault()
+    // count: exact(기본) | cached | estimated | capped -> 깊은 페이지에서 매번 전체 count를 하지 않는다. (그 밖의 값은 400)
+    // exact가 아니면 응답의 totalEstimated로 전체 수가 추정치인지 알려 준다.
     @GetMapping("/members")
-    public Page<Member> list(@PageableDefault(size = 5) Pageable pageable) {
-        Page<Member> page = memberRepository.findAll(pageable);
-        return page;
+    public Page<Member> list(@PageableDefault(size = 5) Pageable pageable,
+                             @RequestParam(value = "count", defaultValue = "exact") String count) {
+        return memberRepository.findPage(null, pageable, CountStrategy.parse(count));
     }
 
     // Entity가 아니라 Dto로 반환할 것 !!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!
     @GetMapping("/members2")
     public Page<MemberDto> list2(@PageableDefault(size = 5) Pageable pageable) {
-        Page<Member> page = memberRepository.findAll(pageable);
-//        return page.map(member -> new MemberDto(member.getId(), member.getUsername(), null));
-        return page.map(MemberDto::new);
+//        Page<Member> page = memberRepository.findAll(pageable);
+//        return page.map(MemberDto::new); // teamName을 채우려면 회원마다 team 지연 로딩(N+1)
+        return memberRepository.findMemberDtoPage(pageable);
+    }
+
+    // keyset(seek) 페이징: ex) /members?after=&size=5 -> 응답의 nextCursor를 다음 요청의 after로 넘긴다.
+    // offset 방식은 앞 페이지 행을 모두 읽고 버리지만, 커서 다음 행부터 읽기 때문에 깊은 페이지도 첫 페이지와 비용이 같다.
+    // 또한 count 쿼리를 날리지 않는다.
+    @GetMapping(value = "/members", params = "after")
+    public MemberSliceDto listAfter(@RequestParam("after") String after,
+                                    @RequestParam(value = "size", defaultValue = "5") int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return toSliceDto(memberRepository.findMemberKeyset(MemberCursor.decode(after), limit));
     }
 
+    // 조건 검색 + keyset 페이징: ex) /members/search?usernamePrefix=user1&teamName=teamA&size=20&after=
+    // 넘기지 않은 조건은 where 절에서 빠지고, teamName이 없으면 team을 조인하지 않는다.
+    @GetMapping("/members/search")
+    public MemberSliceDto search(@RequestParam(value = "username", required = false) String username,
+                                 @RequestParam(value = "usernamePrefix", required = false) String usernamePrefix,
+                                 @RequestParam(value = "teamName", required = false) String teamName,
+                                 @RequestParam(value = "age", required = false) Integer age,
+                                 @RequestParam(value = "after", required = false) String after,
+                                 @RequestParam(value = "size", defaultValue = "20") int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Specification<Member> spec = Specification.where(MemberSpec.username(username))
+                .and(MemberSpec.usernameStartsWith(usernamePrefix))
+                .and(MemberSpec.age(age))
+                .and(MemberSpec.teamName(teamName));
+        return toSliceDto(memberRepository.findMemberKeyset(spec, MemberCursor.decode(after), limit));
+    }
+
+    // 잘못된 after 커서는 InvalidCursorException(@ResponseStatus 400)
+    private MemberSliceDto toSliceDto(Slice<MemberDto> slice) {
+        List<MemberDto> content = slice.getContent();
+        String nextCursor = slice.hasNext()
+                ? MemberCursor.of(content.get(content.size() - 1)).encode()
+                : null;
+        return new MemberSliceDto(content, slice.hasNext(), nextCursor);
+    }
+
+
+    // 세 조회를 동시에 시작하고(fan-out) 모두 끝나면 합친다. 요청 스레드는 기다리지 않고 바로 반납된다.
+    // 순서대로 실행하면 세 쿼리 시간의 합, 동시에 실행하면 가장 느린 쿼리 시간에 가깝다.
+    // 비동기 응답이므로 JdbcConcurrencyLimitFilter 허가는 응답이 완료될 때 반납된다.
+    @GetMapping("/members/overview")
+    public CompletableFuture<MemberOverviewDto> overview(@RequestParam("username") String username) {
+        CompletableFuture<List<MemberDto>> members = memberRepository.findAsyncByUsername(username);
+        CompletableFuture<List<MemberDto>> memberDtos = memberRepository.findMemberDtoAsync();
+        CompletableFuture<List<Team>> teams = teamRepository.findAllAsync();
+
+        return CompletableFuture.allOf(members, memberDtos, teams)
+                .thenApply(done -> new MemberOverviewDto(
+                        members.join(),
+                        memberDtos.join(),
+                        teams.join().stream().map(Team::getName).toList()));
+    }
+
+    // 전체 회원 내보내기: ex) /members/export?format=csv (기본값 ndjson)
+    // DB 커서를 열어 둔 채로 한 줄씩 응답에 바로 쓰기 때문에 회원 수와 상관없이 메모리 사용량이 일정하고,
+    // 쿼리가 끝나기 전에 첫 번째 바이트가 나간다. 스트림을 읽는 동안 커넥션이 필요하므로 트랜잭션 안에서 실행한다.
+    // 다운로드가 끝날 때까지 커넥션을 잡고 있으므로 JdbcConcurrencyLimitFilter 허가도 하나 차지한다.
+    @GetMapping("/members/export")
+    @Transactional(readOnly = true)
+    public void export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                       HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+
+        PrintWriter writer = response.getWriter();
+        if (csv) {
+            writer.println("id,username,teamName");
+        }
+        try (Stream<MemberDto> members = memberRepository.streamMemberDto(exportFetchSize)) {
+            Iterator<MemberDto> iterator = members.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                MemberDto dto = iterator.next();
+                writer.println(csv ? toCsv(dto) : objectMapper.writeValueAsString(dto));
+                if (++count % exportFetchSize == 0) {
+                    writer.flush(); // 버퍼에 쌓아 두지 않고 fetchSize마다 클라이언트로 내보낸다.
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private static String toCsv(MemberDto dto) {
+        return dto.getId() + "," + csvValue(dto.getUsername()) + "," + csvValue(dto.getTeamName());
+    }
+
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
 
     @PostConstruct
     public void init() {
+        List<Member> members = new ArrayList<>();
         for (int i = 0; i < 100; i++) {
-            memberRepository.save(new Member("user" + i, i));
+            members.add(new Member("user" + i, i));
         }
+        memberRepository.persistAll(members);
     }
 }
@@ -0,0 +1,14 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+// 여러 조회 결과를 한 화면에 모아서 내려주는 응답 (/members/overview)
+@Data
+public class MemberOverviewDto {
+
+    private final List<MemberDto> members;
+    private final List<MemberDto> memberDtos;
+    private final List<String> teamNames;
+}
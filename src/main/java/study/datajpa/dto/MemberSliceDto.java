@@ -0,0 +1,14 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+// keyset 페이징 응답: 전체 개수(count) 없이 다음 페이지 존재 여부와 다음 커서만 내려준다.
+@Data
+public class MemberSliceDto {
+
+    private final List<MemberDto> content;
+    private final boolean hasNext;
+    private final String nextCursor;
+}
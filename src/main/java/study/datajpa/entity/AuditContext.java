@@ -0,0 +1,53 @@
+package study.datajpa.entity;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+// 트랜잭션 하나 동안 재사용하는 감사 정보: 작성자(AuditorAware)는 트랜잭션당 1번만 구한다.
+// 현재 시간은 캐시하지 않고 호출마다 읽는다. (긴 트랜잭션/FlushMode.COMMIT 배치에서도 저장 시각이 실제와 같도록, now(clock)는 싸다)
+// 트랜잭션 리소스로 바인딩하고, REQUIRES_NEW로 트랜잭션이 중단/재개될 때 함께 풀고 다시 묶는다.
+final class AuditContext implements TransactionSynchronization {
+
+    private final String auditor;
+    private final Clock clock;
+
+    AuditContext(String auditor, Clock clock) {
+        this.auditor = auditor;
+        this.clock = clock;
+    }
+
+    static AuditContext current() {
+        return (AuditContext) TransactionSynchronizationManager.getResource(AuditContext.class);
+    }
+
+    void bind() {
+        TransactionSynchronizationManager.bindResource(AuditContext.class, this);
+        TransactionSynchronizationManager.registerSynchronization(this);
+    }
+
+    String auditor() {
+        return auditor;
+    }
+
+    LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    @Override
+    public void suspend() {
+        TransactionSynchronizationManager.unbindResource(AuditContext.class);
+    }
+
+    @Override
+    public void resume() {
+        TransactionSynchronizationManager.bindResource(AuditContext.class, this);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(AuditContext.class);
+    }
+}
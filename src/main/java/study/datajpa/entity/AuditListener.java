@@ -0,0 +1,54 @@
+package study.datajpa.entity;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+
+// BaseEntity 전용 감사 리스너 (AuditingEntityListener 대체)
+// - 엔티티마다 AuditorAware를 호출하지 않고 트랜잭션당 1번만 호출한다.
+// - 현재 시간은 @PrePersist/@PreUpdate마다 clock에서 읽는다. (AuditContext)
+// - 리플렉션 없이 BaseEntity 메서드로 값을 넣는다.
+// Hibernate가 SpringBeanContainer로 생성하므로 생성자 주입을 받을 수 있다.
+public class AuditListener {
+
+    private final ObjectProvider<AuditorAware<String>> auditorAware;
+    private final Clock clock;
+
+    public AuditListener(ObjectProvider<AuditorAware<String>> auditorAware, ObjectProvider<Clock> clock) {
+        this.auditorAware = auditorAware;
+        this.clock = clock.getIfAvailable(Clock::systemDefaultZone);
+    }
+
+    @PrePersist
+    public void prePersist(BaseEntity entity) {
+        AuditContext context = context();
+        entity.markCreated(context.auditor(), context.now());
+    }
+
+    @PreUpdate
+    public void preUpdate(BaseEntity entity) {
+        AuditContext context = context();
+        entity.markModified(context.auditor(), context.now());
+    }
+
+    private AuditContext context() {
+        AuditContext context = AuditContext.current();
+        if (context != null) {
+            return context;
+        }
+        context = new AuditContext(currentAuditor(), clock);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            context.bind();
+        }
+        return context; // 트랜잭션 밖이면 이번 호출에만 사용
+    }
+
+    private String currentAuditor() {
+        AuditorAware<String> aware = auditorAware.getIfAvailable();
+        return aware == null ? null : aware.getCurrentAuditor().orElse(null);
+    }
+}
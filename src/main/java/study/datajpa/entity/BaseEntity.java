@@ -3,32 +3,41 @@ package study.datajpa.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 import lombok.Getter;
-import org.springframework.data.annotation.CreatedBy;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedBy;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 
 //Auditing: 감사하다, 감시하다
-@EntityListeners(AuditingEntityListener.class)
+// AuditingEntityListener(@CreatedDate, @CreatedBy...)는 엔티티마다 AuditorAware 호출, 현재 시간 조회, 리플렉션으로 값 설정을 한다.
+// 대량 저장에서 이 비용을 줄이기 위해 AuditListener가 트랜잭션 단위로 캐시한 값을 아래 메서드로 직접 넣는다.
+@EntityListeners(AuditListener.class)
 @MappedSuperclass
 @Getter
 public class BaseEntity {
 
-    @CreatedDate
     @Column(updatable = false)
     private LocalDateTime createdDate;
 
-    @LastModifiedDate
     private LocalDateTime lastModifiedDate;
 
-    @CreatedBy
     @Column(updatable = false)
     private String createdBy;
 
-    @LastModifiedBy
     private String lastModifiedBy;
+
+    // 낙관적 락: 수정할 때마다 1씩 증가하고, update 시 where version = ? 로 다른 트랜잭션의 수정 여부를 확인한다.
+    @Version
+    private Long version;
+
+    void markCreated(String auditor, LocalDateTime now) {
+        createdDate = now;
+        createdBy = auditor;
+        markModified(auditor, now); // 생성 시에도 수정 정보를 채워 둔다. (AuditingEntityListener와 동일)
+    }
+
+    void markModified(String auditor, LocalDateTime now) {
+        lastModifiedDate = now;
+        lastModifiedBy = auditor;
+    }
 }
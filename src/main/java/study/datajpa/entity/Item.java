@@ -2,7 +2,6 @@ package study.datajpa.entity;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -19,12 +18,21 @@ import java.time.LocalDateTime;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Item implements Persistable<String> {
 
-    @Id @GeneratedValue
+    // 직접 할당하는 id: 시간순 UUIDv7 (Item.create()). 시퀀스 조회 없이 애플리케이션에서 바로 만든다.
+    @Id
     private String id;
 
     @CreatedDate
     private LocalDateTime createdDate;
 
+    public Item(String id) {
+        this.id = id;
+    }
+
+    public static Item create() {
+        return new Item(UuidV7.generate().toString());
+    }
+
     @Override
     public String getId() {
         return id;
@@ -2,6 +2,9 @@ package study.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 // @Setter보다 아래와 같이 필요한 메서드를 구현하는 게 좋은 방법
 //    public void changeUsername(String username) {
@@ -14,15 +17,28 @@ import lombok.*;
 @NamedQuery(
         name="Member.findByUsername",
         query="select m from Member m where m.username = :username")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// 스키마는 Flyway(V1__init.sql)가 만들지만, 어떤 조회를 위한 인덱스인지 매핑에도 남겨 둔다. (ddl-auto: create인 벤치마크에서도 사용)
+@Table(name = "member", indexes = {
+        @Index(name = "idx_member_username_age", columnList = "username, age"), // username 조건/정렬, (username, age) 조건
+        @Index(name = "idx_member_username_id", columnList = "username, member_id"), // keyset 정렬 (username, id)
+        @Index(name = "idx_member_age_username_id", columnList = "age, username, member_id"), // age 조건 + username 정렬 페이징, findByAgeKeyset, bulkAgePlus
+        @Index(name = "idx_member_team", columnList = "team_id")})
 public class Member extends BaseEntity{
 
-    @Id @GeneratedValue
+    // 시퀀스 값을 allocationSize만큼 한 번에 받아 두고 메모리에서 나눠 쓴다. (insert 마다 시퀀스 조회 X)
+    // optimizer는 pooled-lo (hibernate.id.optimizer.pooled.preferred), 시퀀스 increment는 V2 마이그레이션과 맞춘다.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 500)
     @Column(name = "member_id")
     private Long id;
     private String username;
     private int age;
 
     @ManyToOne(fetch = FetchType.LAZY) //default: FetchType.EAGER 이므로 지연로딩으로 바꿔줘야한다.
+    // 프록시 초기화는 default_batch_fetch_size(application.yml) 단위로 모아서 IN 절 한 번으로 처리된다.
     @JoinColumn(name = "team_id")
     private Team team;
 
@@ -44,7 +60,13 @@ public class Member extends BaseEntity{
     }
 
     // 연관관계 메서드
+    // Team.members는 mappedBy(inverse) 컬렉션이라 아직 로딩되지 않았으면 add()를 큐에 쌓아 두기만 한다. (select X)
+    // 나중에 컬렉션을 초기화할 때 큐에 쌓인 값이 합쳐진다. 기존 팀 컬렉션은 이미 로딩된 경우에만 메모리에서 뺀다.
+    // 팀의 회원이 10만 명이어도 회원 한 명의 팀 변경은 update 1번이다.
     public void changeTeam(Team team) {
+        if (this.team != null && Hibernate.isInitialized(this.team) && Hibernate.isInitialized(this.team.getMembers())) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
         team.getMembers().add(this);
     }
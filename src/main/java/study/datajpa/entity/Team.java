@@ -2,6 +2,9 @@ package study.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,14 +13,21 @@ import java.util.List;
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED) //JPA는 기본생성자가 필수이다. JPA는 Proxy를 쓰는데 private로 하면 가져다 쓸수 없기 때문에 최소 protected로 열어놔야한다.
 @ToString(of = {"id", "name"})
-public class Team {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 거의 수정되지 않고 계속 조회되므로 2차 캐시에 둔다.
+@Table(name = "team", indexes = @Index(name = "idx_team_name", columnList = "name")) // MemberSpec.teamName
+public class Team extends BaseEntity {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 500)
     @Column(name = "team_id")
     private Long id;
     private String name;
 
-    @OneToMany(mappedBy = "team") // foreign key가 없는 쪽에 mappedBy 지정
+    @OneToMany(mappedBy = "team") // foreign key가 없는 쪽에 mappedBy 지정, 초기화는 default_batch_fetch_size 단위로 모아서 한다.
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 컬렉션 캐시에는 회원 id만 저장된다. (회원 자체는 Member region)
+    @OptimisticLock(excluded = true) // 회원이 팀에 들어오고 나가는 것만으로 Team의 version을 올리지 않는다. (팀 정보 수정과 충돌 X)
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
@@ -0,0 +1,12 @@
+package study.datajpa.repository;
+
+// 청크 단위 bulk 연산의 진행 상황
+// lastId까지 커밋이 끝났으므로, 중간에 실패하면 마지막으로 받은 lastId부터 다시 실행하면 된다.
+@FunctionalInterface
+public interface BulkProgressListener {
+
+    BulkProgressListener NONE = (lastId, maxId, updated) -> {
+    };
+
+    void onChunkCommitted(long lastId, long maxId, int updated);
+}
@@ -0,0 +1,58 @@
+package study.datajpa.repository;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Page의 totalElements를 구하는 방법 (MemberRepositoryCustom.findPage)
+// - exact: 매번 count 쿼리
+// - cached: count 쿼리를 쿼리 캐시(count-query-results region, TTL은 application.conf)에 둔다. member 테이블이 바뀌면 자동 무효화
+// - estimated: DB 통계의 테이블 행 수 추정치 (조건이 없을 때만, 조건이 있으면 capped(DEFAULT_CAP)로 대체)
+// - capped(max): max개까지만 센다. max를 넘으면 max로 두고 추정치로 표시한다.
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CountStrategy {
+
+    public static final int DEFAULT_CAP = 10_000;
+
+    private static final CountStrategy EXACT = new CountStrategy(Type.EXACT, 0);
+    private static final CountStrategy CACHED = new CountStrategy(Type.CACHED, 0);
+    private static final CountStrategy ESTIMATED = new CountStrategy(Type.ESTIMATED, 0);
+
+    private final Type type;
+    private final int max;
+
+    public static CountStrategy exact() {
+        return EXACT;
+    }
+
+    public static CountStrategy cached() {
+        return CACHED;
+    }
+
+    public static CountStrategy estimated() {
+        return ESTIMATED;
+    }
+
+    public static CountStrategy capped(int max) {
+        if (max <= 0) {
+            throw new IllegalArgumentException("max must be positive");
+        }
+        return new CountStrategy(Type.CAPPED, max);
+    }
+
+    // 요청 파라미터(?count=exact|cached|estimated|capped) -> CountStrategy, 그 밖의 값은 400
+    public static CountStrategy parse(String name) {
+        return switch (name) {
+            case "exact" -> exact();
+            case "cached" -> cached();
+            case "estimated" -> estimated();
+            case "capped" -> capped(DEFAULT_CAP);
+            default -> throw new InvalidCountStrategyException(name);
+        };
+    }
+
+    public enum Type {
+        EXACT, CACHED, ESTIMATED, CAPPED
+    }
+}
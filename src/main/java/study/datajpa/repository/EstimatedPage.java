@@ -0,0 +1,22 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+// totalElements가 정확한 값이 아닐 수 있는 Page (CountStrategy.estimated/capped)
+// JSON 응답에 "totalEstimated": true/false 로 함께 내려간다.
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    private final boolean totalEstimated;
+
+    public EstimatedPage(List<T> content, Pageable pageable, long total, boolean totalEstimated) {
+        super(content, pageable, total);
+        this.totalEstimated = totalEstimated;
+    }
+
+    public boolean isTotalEstimated() {
+        return totalEstimated;
+    }
+}
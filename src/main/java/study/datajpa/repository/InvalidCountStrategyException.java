@@ -0,0 +1,13 @@
+package study.datajpa.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// 클라이언트가 보낸 count 방식을 알 수 없을 때 -> 400 Bad Request
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCountStrategyException extends IllegalArgumentException {
+
+    public InvalidCountStrategyException(String count) {
+        super("알 수 없는 count 방식입니다: " + count + " (exact, cached, estimated, capped)");
+    }
+}
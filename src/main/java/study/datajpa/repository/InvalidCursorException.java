@@ -0,0 +1,13 @@
+package study.datajpa.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// 클라이언트가 보낸 keyset 커서를 해석할 수 없을 때 -> 400 Bad Request
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String cursor, Throwable cause) {
+        super("잘못된 커서입니다: " + cursor, cause);
+    }
+}
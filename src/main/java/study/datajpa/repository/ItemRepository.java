@@ -3,5 +3,6 @@ package study.datajpa.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import study.datajpa.entity.Item;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+// id를 직접 할당하므로 대량 저장은 save()/saveAll() 대신 persist()/persistAll()을 쓴다.
+public interface ItemRepository extends JpaRepository<Item, String>, PersistRepository<Item> {
 }
@@ -0,0 +1,58 @@
+package study.datajpa.repository;
+
+import org.springframework.util.StringUtils;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// keyset(seek) 페이징 커서: 마지막으로 읽은 행의 (username, member_id)
+// 클라이언트에는 내부 구조를 알 수 없도록 Base64로 인코딩한 문자열로만 내보낸다.
+public class MemberCursor {
+
+    private final String username;
+    private final Long id;
+
+    public MemberCursor(String username, Long id) {
+        this.username = username;
+        this.id = id;
+    }
+
+    public static MemberCursor of(Member member) {
+        return new MemberCursor(member.getUsername(), member.getId());
+    }
+
+    public static MemberCursor of(MemberDto member) {
+        return new MemberCursor(member.getUsername(), member.getId());
+    }
+
+    public String encode() {
+        // id를 앞에 두면 username에 ':'가 들어 있어도 안전하게 나눌 수 있다.
+        String raw = id + ":" + username;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 빈 값이면 첫 페이지
+    public static MemberCursor decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new MemberCursor(raw.substring(sep + 1), Long.valueOf(raw.substring(0, sep)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
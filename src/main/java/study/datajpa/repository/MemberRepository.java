@@ -4,18 +4,21 @@ import jakarta.persistence.LockModeType;
 import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 //핵심 비지니스 로직과 화면에 맞춘 복잡한 로직은 분리하는 것이 좋다. (라이프 사이클이 다르다!)
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom,
-        JpaSpecificationExecutor<Member>{
+        JpaSpecificationExecutor<Member>, PersistRepository<Member> {
 
     List<Member> findByUsernameAndAgeGreaterThan(String username, int age);
 
@@ -24,6 +27,8 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     // jpql에 :필드가 있으면 @Param을 넣어줘야함
     // 해당 엔티티에 nameQuery가 있으면 찾고, 없으면 query를 만듦 따라서 @Query 생략 가능! 하지만 실무에서는 거의 안씀(불편)
 //    @Query(name = "Member.findByUsername")
+    // 자주 조회되는 쿼리는 쿼리 캐시에 둔다. member 테이블이 변경되면(bulk 연산 포함) Hibernate가 자동으로 무효화한다.
+    @QueryHints(value = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Member> findByUsername(@Param("username") String username);
 
     @Query("select m from Member m where m.username = :username and m.age = :age")
@@ -37,24 +42,44 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
-    @Query("select m from Member m where m.username in :names")
-    List<Member> findByNames(@Param("names") Collection<String> names);
+    // 단건/이름 조회도 teamName까지 한 번에 DTO로 (MemberLookup). 팀이 없는 회원도 나오도록 left join
+    @QueryHints(value = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t" +
+            " where m.id = :id")
+    Optional<MemberDto> findMemberDtoById(@Param("id") Long id);
+
+    @QueryHints(value = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t" +
+            " where m.username = :username")
+    List<MemberDto> findMemberDtoByUsername(@Param("username") String username);
 
     List<Member> findListByUsername(String username); //컬렉션
     Member findMemberByUsername(String username); //단건
     Optional<Member> findOptionalByUsername(String username); //단건 Optional
 
-    @Query(value = "select m from Member m left join m.team t",
-            countQuery = "select count(m) from Member m")
-    Page<Member> findByAge(int age, Pageable pageable);
+    @Query(value = "select m from Member m left join m.team t where m.age = :age",
+            countQuery = "select count(m) from Member m where m.age = :age")
+    Page<Member> findByAge(@Param("age") int age, Pageable pageable); // idx_member_age_username_id (age, username, member_id)로 조건과 username 정렬을 함께 처리
     //totalCount는 모든 데이터를 가져오는데 query가 복잡해질수록 성능이 기하급수적으로 안좋아진다.
     //하지만 totalCount는 left join을 하지 않아도 그 수가 같기 때문에 @Query를 통해 별도로 분리한다.
     // 참고: sort도 조건이 복잡하면 잘 안풀리기 때문에 그 경우엔 @Qeury 안에 넣는 것도 좋다.
 
+    // findByAge와 같은 조건이지만 totalElements를 countStrategy로 구한다. (findPage 사용, count도 age 조건만)
+    default EstimatedPage<Member> findByAge(int age, Pageable pageable, CountStrategy countStrategy) {
+        return findPage(MemberSpec.age(age), pageable, countStrategy);
+    }
+
+    // 엔티티를 조회한 뒤 Dto로 바꾸면 member.getTeam().getName()마다 지연 로딩(N+1)이 일어난다.
+    // 처음부터 Dto로 조회하면 페이지당 content 1번 + count 1번으로 끝난다. count는 team 조인이 필요 없다.
+    @Query(value = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t",
+            countQuery = "select count(m) from Member m")
+    Page<MemberDto> findMemberDtoPage(Pageable pageable);
+
 
     // bulk성 업데이트나 삭제는 @Modifying을 붙이지 않으면 에러가 터진다.
     // bulk 연산은 영속성 컨텍스트를 무시하고 DB에 Query를 날리기 때문에, bulk성 query 후 추가 로직이 남아있다면 강제로 clear()를 해줘야한다.
     // 이를 @Modifying에서 clearAutomatically를 true로 해주면 자동으로 clear를 해준다!
+    // 2차 캐시: JPQL bulk 연산은 Hibernate가 Member region과 member 테이블을 사용하는 쿼리 캐시를 자동으로 비운다.
     @Modifying(clearAutomatically = true)
     @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
     int bulkAgePlus(@Param("age") int age);
@@ -83,20 +108,60 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     Member findReaOnlyByUsername(String username);
     // JPA는 더티체킹을 위해 스냅샷을 만들어 두는데 @QueryHint를 통해 readOnly를 true로 주면,
     // 스냅샷을 만들지 않기 때문에 더티체킹에 의한 변경이 이뤄지지 않는다.
+    // 참고: 엔티티는 바이트코드 향상(build.gradle hibernate.enhancement)으로 변경된 필드를 스스로 기록하므로
+    // readOnly가 아니어도 flush 때 모든 필드를 비교하지 않는다. readOnly는 스냅샷 메모리까지 줄이고 싶을 때 쓴다.
     // QueryHint를 통해 최적화를 할 수 있지만, 특정 복잡한 API만 유의미한 최적화가 이뤄지기 때문에 모든 조회에 넣을 필요가 없다.
     // 또한 대규모 트래픽이 유발되는 API라면 캐시가 더 필요하기 때문에 성능 테스트를 해보고 적용하자.
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(String username);
+    // 비관적 락: select ... for update -> 트랜잭션이 끝날 때까지 같은 행을 수정하려는 다른 트랜잭션이 기다린다.
+
+    // 낙관적 락: 락 없이 조회하고 커밋 시점에 version으로 충돌을 검사한다. 충돌하면 OptimisticLockingFailureException
+    // -> 충돌이 드문 경우 처리량이 훨씬 좋다. 충돌 시 재시도는 @RetryOnOptimisticLock (MemberService 참고)
+    @Lock(LockModeType.OPTIMISTIC)
+    List<Member> findOptimisticLockByUsername(String username);
 
     List<UsernameOnly> findProjectionsByUsername(@Param("username") String username);
 
+    // UsernameOnly(오픈 프로젝션)와 같은 값을 select 절에서 바로 만든다.
+    // 오픈 프로젝션은 Member 엔티티 전체를 영속성 컨텍스트에 올리고 행마다 SpEL을 리플렉션으로 평가하지만,
+    // 이 메서드는 필요한 컬럼만 조회해서 생성자로 바로 담기 때문에 클로즈 프로젝션/DTO 조회와 비용이 같다.
+    @Query("select new study.datajpa.repository.UsernameOnlyDto(concat(m.username, ' ', cast(m.age as String)))" +
+            " from Member m where m.username = :username")
+    List<UsernameOnlyDto> findUsernameOnlyByUsername(@Param("username") String username);
+
     @Query(value = "select * from member where username =?", nativeQuery = true)
     Member findByNativeQuery(String username);
 
     @Query(value = "select m.member_id as id, m.username, t.name as teamName " +
-            " from member m left join team t",
+            " from member m left join team t on m.team_id = t.team_id",
             countQuery = "select count(*) from member",
             nativeQuery = true)
     Page<MemberProjection> findByNativeProjection(Pageable pageable);
+
+    // count 없이 content만 (Slice: pageSize + 1개를 읽어 다음 페이지 여부만 안다)
+    @Query(value = "select m.member_id as id, m.username, t.name as teamName " +
+            " from member m left join team t on m.team_id = t.team_id",
+            nativeQuery = true)
+    Slice<MemberProjection> findSliceByNativeProjection(Pageable pageable);
+
+    // findByNativeProjection과 같은 content, totalElements는 countStrategy로 구한다. (count는 조건 없는 member 전체)
+    default EstimatedPage<MemberProjection> findByNativeProjection(Pageable pageable, CountStrategy countStrategy) {
+        return toEstimatedPage(findSliceByNativeProjection(pageable).getContent(), pageable, null, countStrategy);
+    }
+
+    // 비동기 조회: queryExecutor 스레드에서 각자의 readOnly 트랜잭션으로 실행되고 바로 CompletableFuture를 반환한다.
+    // 여러 조회를 동시에 시작하면 전체 응답 시간이 각 쿼리 시간의 합이 아니라 가장 느린 쿼리 시간에 가까워진다.
+    // 트랜잭션이 끝난 뒤(다른 스레드에서) 결과를 쓰므로 지연 로딩할 연관관계가 없도록 teamName까지 DTO로 가져온다.
+    @Async("queryExecutor")
+    @Transactional(readOnly = true)
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t" +
+            " where m.username = :username")
+    CompletableFuture<List<MemberDto>> findAsyncByUsername(@Param("username") String username);
+
+    @Async("queryExecutor")
+    @Transactional(readOnly = true)
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
+    CompletableFuture<List<MemberDto>> findMemberDtoAsync();
 }
@@ -1,13 +1,55 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    // keyset(seek) 페이징: (username, member_id) 순으로 after 커서 다음 행부터 size개를 가져온다.
+    // offset을 쓰지 않으므로 깊은 페이지도 첫 페이지와 비용이 같고, count 쿼리도 날리지 않는다.
+    // team은 left join으로 teamName만 함께 가져온다. (회원마다 team 지연 로딩 X)
+    Slice<MemberDto> findMemberKeyset(MemberCursor after, int size);
+
+    Slice<MemberDto> findByAgeKeyset(int age, MemberCursor after, int size);
+
+    // username IN 조회: 중복/null을 제거하고 IN_CHUNK_SIZE개씩 나눠서 조회한 뒤 합친다.
+    // 각 IN 절은 in_clause_parameter_padding으로 2의 제곱수 크기가 되므로 SQL 종류가 log2(IN_CHUNK_SIZE)개를 넘지 않는다.
+    List<Member> findByNames(Collection<String> names);
+
+    // Specification 조건 + keyset 페이징. (JpaSpecificationExecutor.findAll(spec, pageable)과 달리 offset, count 쿼리가 없다)
+    // 빈 조건은 MemberSpec에서 null이 되어 빠지므로 필요한 조건/조인만 SQL에 남는다.
+    Slice<MemberDto> findMemberKeyset(Specification<Member> spec, MemberCursor after, int size);
+
+    // Specification 조건 + offset 페이징, totalElements는 countStrategy로 구한다. (null 조건 = 전체)
+    // 마지막 페이지처럼 content만으로 전체 수를 알 수 있으면 count를 하지 않는다.
+    EstimatedPage<Member> findPage(Specification<Member> spec, Pageable pageable, CountStrategy countStrategy);
+
+    // 이미 조회한 페이지 content에 countStrategy로 구한 totalElements를 붙인다. (countSpec = content를 조회한 조건, null = 전체)
+    // @Query 메서드(findByAge, findByNativeProjection)도 Slice로 content만 읽고 이것으로 count 방식을 고른다.
+    <T> EstimatedPage<T> toEstimatedPage(List<T> content, Pageable pageable,
+                                         Specification<Member> countSpec, CountStrategy countStrategy);
+
+    // 전체 회원을 List로 한 번에 올리지 않고 fetchSize 단위로 DB에서 읽어 오는 forward-only 스트림
+    // 트랜잭션 안에서 호출하고, 다 쓴 뒤에는 반드시 close() 해야 커서(ResultSet)가 반납된다.
+    Stream<MemberDto> streamMemberDto(int fetchSize);
+
+    // bulkAgePlus를 PK 순서로 chunkSize개씩 나눠서 청크마다 별도 트랜잭션으로 커밋한다.
+    // 한 번에 테이블 전체를 잠그지 않고, 호출한 쪽의 영속성 컨텍스트도 비우지 않는다.
+    // 호출한 쪽 트랜잭션이 들고 있는 범위 안의 Member는 청크마다 refresh 해서 커밋된 age/version으로 맞춘다.
+    // 청크는 별도 트랜잭션이므로 호출한 쪽 트랜잭션이 이미 수정(잠금)한 Member 행은 lock timeout까지 기다린다.
+    // -> Member를 수정하기 전에 호출하거나 트랜잭션 밖에서 호출한다. (flush 안 된 변경이 있으면 IllegalStateException)
+    // afterId: 이 id 다음부터 처리 (처음이면 0, 실패 후 재시작이면 마지막으로 커밋된 lastId)
+    long bulkAgePlusChunked(int age, long afterId, int chunkSize, BulkProgressListener listener);
 }
 
 // 핵심 비지니스 로직과 화면에 맞춘 복잡한 로직은 분리하는 것이 좋다.
 // 1. 레파지토리가 너무 복잡해지면 핵심 비지니스 로직을 구분하여 쓰기 어렵다.
-// 2. 핵심 로직과 화면에 맞춘 복잡한 로직은 라이프 사이클이 다르다!
\ No newline at end of file
+// 2. 핵심 로직과 화면에 맞춘 복잡한 로직은 라이프 사이클이 다르다!
@@ -1,19 +1,285 @@
 package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    // IN 절 하나의 최대 파라미터 수: padding 후에도 그대로 2의 제곱수이고, DB 파라미터 제한(Oracle IN 1000개 등)보다 작다.
+    static final int IN_CHUNK_SIZE = 512;
+
     private final EntityManager em;
+    private final PlatformTransactionManager transactionManager;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Member> findByNames(Collection<String> names) {
+        List<String> distinct = names.stream().filter(Objects::nonNull).distinct().toList();
+        List<Member> result = new ArrayList<>();
+        // 청크는 같은 트랜잭션(같은 커넥션)에서 순서대로 실행한다.
+        for (int from = 0; from < distinct.size(); from += IN_CHUNK_SIZE) {
+            List<String> chunk = distinct.subList(from, Math.min(from + IN_CHUNK_SIZE, distinct.size()));
+            result.addAll(em.createQuery("select m from Member m where m.username in :names", Member.class)
+                    .setParameter("names", chunk)
+                    .getResultList());
+        }
+        return result;
+    }
+
+    @Override
+    public Slice<MemberDto> findMemberKeyset(MemberCursor after, int size) {
+        return findMemberKeyset(null, after, size);
+    }
+
+    @Override
+    public Slice<MemberDto> findByAgeKeyset(int age, MemberCursor after, int size) {
+        // age가 하나로 고정되므로 age를 맨 앞 정렬 키로 두어도 순서는 같고, (age, username, member_id) 인덱스 순서로 읽을 수 있다.
+        return keyset(MemberSpec.age(age), List.of("age"), after, size);
+    }
+
+    @Override
+    public Slice<MemberDto> findMemberKeyset(Specification<Member> spec, MemberCursor after, int size) {
+        return keyset(spec, List.of(), after, size);
+    }
+
+    // fixedSortKeys: 조건으로 값이 하나로 고정된 속성. (username, id) 앞에 정렬 키로 붙여서 인덱스와 정렬 순서를 맞춘다.
+    private Slice<MemberDto> keyset(Specification<Member> spec, List<String> fixedSortKeys, MemberCursor after, int size) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<MemberDto> query = builder.createQuery(MemberDto.class);
+        Root<Member> m = query.from(Member.class);
+
+        List<Predicate> where = new ArrayList<>();
+        Predicate condition = spec == null ? null : spec.toPredicate(m, query, builder);
+        if (condition != null) {
+            where.add(condition);
+        }
+        if (after != null) {
+            // (username, id) > (:username, :id)
+            where.add(builder.or(
+                    builder.greaterThan(m.get("username"), after.getUsername()),
+                    builder.and(
+                            builder.equal(m.get("username"), after.getUsername()),
+                            builder.greaterThan(m.get("id"), after.getId()))));
+        }
+        // teamName 조건이 이미 team을 조인했으면 그 조인을 쓰고, 아니면 팀이 없는 회원도 나오도록 left join
+        Join<Member, Team> t = MemberSpec.joinTeam(m, JoinType.LEFT);
+        // 정렬 키가 유일해야 누락/중복 없이 이어서 읽을 수 있으므로 PK를 마지막 정렬 키로 둔다.
+        List<Order> orders = new ArrayList<>();
+        fixedSortKeys.forEach(key -> orders.add(builder.asc(m.get(key))));
+        orders.add(builder.asc(m.get("username")));
+        orders.add(builder.asc(m.get("id")));
+        query.select(builder.construct(MemberDto.class, m.get("id"), m.get("username"), t.get("name")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(orders);
+
+        // Slice처럼 size + 1개를 가져와서 다음 페이지 존재 여부만 판단한다.
+        List<MemberDto> content = em.createQuery(query).setMaxResults(size + 1).getResultList();
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = content.subList(0, size);
+        }
+        return new SliceImpl<>(content, Pageable.ofSize(size), hasNext);
+    }
+
+    @Override
+    public EstimatedPage<Member> findPage(Specification<Member> spec, Pageable pageable, CountStrategy countStrategy) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<Member> query = builder.createQuery(Member.class);
+        Root<Member> m = query.from(Member.class);
+        Predicate condition = spec == null ? null : spec.toPredicate(m, query, builder);
+        if (condition != null) {
+            query.where(condition);
+        }
+        query.select(m).orderBy(QueryUtils.toOrders(pageable.getSort(), m, builder));
+
+        TypedQuery<Member> contentQuery = em.createQuery(query);
+        if (pageable.isPaged()) {
+            contentQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        return toEstimatedPage(contentQuery.getResultList(), pageable, spec, countStrategy);
+    }
+
+    @Override
+    public <T> EstimatedPage<T> toEstimatedPage(List<T> content, Pageable pageable,
+                                                Specification<Member> countSpec, CountStrategy countStrategy) {
+        // 첫 페이지가 덜 찼거나 마지막 페이지면 content만으로 전체 수를 안다. (PageableExecutionUtils와 동일)
+        if (pageable.isUnpaged()) {
+            return new EstimatedPage<>(content, pageable, content.size(), false);
+        }
+        if (content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            return new EstimatedPage<>(content, pageable, pageable.getOffset() + content.size(), false);
+        }
+
+        Count count = count(countSpec, countStrategy);
+        // 추정치가 현재 페이지보다 작으면 페이지 정보가 깨지므로 최소한 지금까지 본 행 수 + 1(다음 페이지 가능성)로 맞춘다.
+        long seen = pageable.getOffset() + content.size();
+        long total = count.estimated() ? Math.max(count.total(), seen + 1) : count.total();
+        return new EstimatedPage<>(content, pageable, total, count.estimated());
+    }
+
+    private Count count(Specification<Member> spec, CountStrategy countStrategy) {
+        return switch (countStrategy.getType()) {
+            case EXACT -> new Count(countQuery(spec).getSingleResult(), false);
+            // member 테이블이 바뀌면(update timestamps) Hibernate가 캐시된 결과를 버린다.
+            case CACHED -> new Count(countQuery(spec)
+                    .setHint("org.hibernate.cacheable", true)
+                    .setHint("org.hibernate.cacheRegion", "count-query-results")
+                    .getSingleResult(), false);
+            case ESTIMATED -> spec == null
+                    ? new Count(estimatedRowCount(), true)
+                    : cappedCount(spec, CountStrategy.DEFAULT_CAP);
+            case CAPPED -> cappedCount(spec, countStrategy.getMax());
+        };
+    }
+
+    private TypedQuery<Long> countQuery(Specification<Member> spec) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Member> m = query.from(Member.class);
+        Predicate condition = spec == null ? null : spec.toPredicate(m, query, builder);
+        if (condition != null) {
+            query.where(condition);
+        }
+        return em.createQuery(query.select(builder.count(m)));
+    }
+
+    // 최대 max + 1개의 id만 읽는다. (인덱스만 읽고 멈추므로 테이블이 커져도 비용이 max에 비례)
+    private Count cappedCount(Specification<Member> spec, int max) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Member> m = query.from(Member.class);
+        Predicate condition = spec == null ? null : spec.toPredicate(m, query, builder);
+        if (condition != null) {
+            query.where(condition);
+        }
+        int found = em.createQuery(query.select(m.get("id"))).setMaxResults(max + 1).getResultList().size();
+        return found > max ? new Count(max, true) : new Count(found, false);
+    }
+
+    // H2의 테이블 행 수 추정치 (PostgreSQL: pg_class.reltuples, MySQL: information_schema.tables.table_rows)
+    private long estimatedRowCount() {
+        Number estimate = (Number) em.createNativeQuery(
+                        "select row_count_estimate from information_schema.tables" +
+                                " where table_schema = current_schema and table_name = 'MEMBER'")
+                .getSingleResult();
+        return estimate.longValue();
+    }
+
+    private record Count(long total, boolean estimated) {
+    }
+
+    @Override
+    public Stream<MemberDto> streamMemberDto(int fetchSize) {
+        // 엔티티가 아니라 DTO로 바로 조회하므로 영속성 컨텍스트에 아무것도 쌓이지 않는다. (스냅샷, 1차 캐시 X)
+        // 내부적으로 ScrollableResults(FORWARD_ONLY)를 사용하고, fetchSize만큼씩 JDBC에서 가져온다.
+        return em.createQuery(
+                        "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                                " from Member m left join m.team t", MemberDto.class)
+                .setHint("org.hibernate.fetchSize", fetchSize)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream();
+    }
+
+    @Override
+    public long bulkAgePlusChunked(int age, long afterId, int chunkSize, BulkProgressListener listener) {
+        Assert.isTrue(chunkSize > 0, "chunkSize must be positive");
+        // 호출한 쪽 트랜잭션에 flush 안 된 변경이 있으면, 청크가 끝난 뒤 refresh 할 때 그 변경이 사라진다.
+        Assert.state(!TransactionSynchronizationManager.isActualTransactionActive() || !em.unwrap(Session.class).isDirty(),
+                "bulkAgePlusChunked must not be called with unflushed changes in the caller's persistence context");
+        // 청크마다 새 트랜잭션(새 영속성 컨텍스트)에서 실행하고 바로 커밋한다.
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Long maxId = chunkTransaction.execute(status ->
+                em.createQuery("select max(m.id) from Member m", Long.class).getSingleResult());
+        if (maxId == null) {
+            return 0;
+        }
+
+        long total = 0;
+        long lastId = afterId;
+        while (lastId < maxId) {
+            long fromId = lastId;
+            long[] toId = new long[1];
+            Integer updated = chunkTransaction.execute(status -> {
+                // PK 인덱스로 chunkSize번째 id를 찾아 청크의 끝으로 삼는다. (id 사이에 빈 값이 있어도 청크 크기가 일정)
+                toId[0] = em.createQuery("select m.id from Member m where m.id > :fromId order by m.id", Long.class)
+                        .setParameter("fromId", fromId)
+                        .setFirstResult(chunkSize - 1)
+                        .setMaxResults(1)
+                        .getResultStream()
+                        .findFirst()
+                        .orElse(maxId);
+                // versioned: @Version도 함께 올려서 동시에 수정 중인 낙관적 락 트랜잭션이 충돌을 알 수 있게 한다.
+                // JPQL bulk 연산이므로 Hibernate가 Member 2차 캐시 region만 비운다. (Team region은 그대로)
+                return em.createQuery("update versioned Member m set m.age = m.age + 1" +
+                                " where m.id > :fromId and m.id <= :toId and m.age >= :age")
+                        .setParameter("fromId", fromId)
+                        .setParameter("toId", toId[0])
+                        .setParameter("age", age)
+                        .executeUpdate();
+            });
+            total += updated;
+            lastId = toId[0];
+            refreshManagedMembers(fromId, lastId);
+            listener.onChunkCommitted(lastId, maxId, updated);
+        }
+        return total;
+    }
+
+    // 청크 트랜잭션은 다른 영속성 컨텍스트에서 커밋되므로, 호출한 쪽 트랜잭션이 들고 있는 같은 범위의 Member는
+    // age/version이 옛 값으로 남는다. (그대로 수정하면 flush 때 OptimisticLockException) 커밋된 값으로 다시 읽는다.
+    private void refreshManagedMembers(long fromId, long toId) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return; // 호출한 쪽 트랜잭션이 없으면 들고 있는 엔티티도 없다.
+        }
+        for (Map.Entry<Object, EntityEntry> entry :
+                em.unwrap(SessionImplementor.class).getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Member member
+                    && entry.getValue().getStatus() == Status.MANAGED
+                    && member.getId() > fromId && member.getId() <= toId) {
+                em.refresh(member);
+            }
+        }
+    }
 }
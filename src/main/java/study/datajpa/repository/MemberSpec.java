@@ -1,5 +1,6 @@
 package study.datajpa.repository;
 
+import jakarta.persistence.criteria.From;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
 import org.springframework.data.jpa.domain.Specification;
@@ -7,19 +8,50 @@ import org.springframework.util.StringUtils;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
 
+// 조건이 비어 있으면 null을 반환해서 where 절에서 빠지게 한다. (Specification.where/and는 null을 무시)
+// join도 조건이 있을 때만 만들기 때문에, 쓰지 않는 조건 때문에 team을 조인하지 않는다.
 public class MemberSpec {
     public static Specification<Member> teamName(final String teamName) {
         return (Specification<Member>) (root, query, builder) -> {
-            if (StringUtils.isEmpty(teamName)) {
+            if (!StringUtils.hasText(teamName)) {
                 return null;
             }
-            Join<Member, Team> t = root.join("team", JoinType.INNER); //회원과 조인
-            return builder.equal(t.get("name"), teamName);
+            return builder.equal(joinTeam(root, JoinType.INNER).get("name"), teamName);
         };
     }
 
     public static Specification<Member> username(final String username) {
+        return (Specification<Member>) (root, query, builder) -> {
+            if (!StringUtils.hasText(username)) {
+                return null;
+            }
+            return builder.equal(root.get("username"), username);
+        };
+    }
+
+    // 'prefix%' 형태라 username 인덱스 범위 스캔을 탈 수 있다. ('%word%'는 전체 스캔)
+    public static Specification<Member> usernameStartsWith(final String prefix) {
+        return (Specification<Member>) (root, query, builder) -> {
+            if (!StringUtils.hasText(prefix)) {
+                return null;
+            }
+            String escaped = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            return builder.like(root.get("username"), escaped + "%", '\\');
+        };
+    }
+
+    public static Specification<Member> age(final Integer age) {
         return (Specification<Member>) (root, query, builder) ->
-                builder.equal(root.get("username"), username);
+                age == null ? null : builder.equal(root.get("age"), age);
+    }
+
+    // 같은 쿼리에서 여러 조건(+ select 절)이 team을 참조해도 조인은 한 번만 한다. 이미 있으면 그 조인을 쓴다.
+    @SuppressWarnings("unchecked")
+    static Join<Member, Team> joinTeam(From<?, Member> root, JoinType joinType) {
+        return root.getJoins().stream()
+                .filter(join -> join.getAttribute().getName().equals("team"))
+                .map(join -> (Join<Member, Team>) join)
+                .findFirst()
+                .orElseGet(() -> root.join("team", joinType)); //회원과 조인
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package study.datajpa.repository;
+
+// 여러 레파지토리가 함께 쓰는 fragment: save()의 isNew() 판단(새 엔티티가 아니면 merge -> select) 없이 바로 insert/update 한다.
+// id를 직접 할당하는 엔티티(Item)에서 isNew()를 잘못 구현해도 insert 전에 select가 나가지 않는다.
+public interface PersistRepository<T> {
+
+    // 항상 em.persist() -> insert 1번. 이미 있는 id면 flush/커밋 시점에 PK 제약 조건 예외가 난다.
+    <S extends T> S persist(S entity);
+
+    // 준영속 엔티티를 조회 없이 다시 영속 상태로 만든다. (@Version이 있으면 where version = ?)
+    // 엔티티는 바이트코드 향상(dirty tracking)이 되어 있으므로 준영속 상태에서 바뀐 필드가 있을 때만 update가 나간다.
+    // 바뀐 것이 없으면 update도 select도 없다. (무조건 update 하던 Session.update()의 기본 동작과 다름)
+    <S extends T> S update(S entity);
+
+    // hibernate.jdbc.batch_size마다 flush()/clear() 해서 JDBC batch로 insert 한다. 저장한 건수를 반환한다.
+    long persistAll(Iterable<? extends T> entities);
+
+    // batchSize마다 flush()/clear() 한다. 이번 호출에만 세션의 JDBC batch 크기를 batchSize로 바꾼다.
+    long persistAll(Iterable<? extends T> entities, int batchSize);
+}
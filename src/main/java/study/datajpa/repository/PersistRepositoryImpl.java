@@ -0,0 +1,66 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+// 모든 레파지토리가 이 구현체 빈 하나를 공유한다. (엔티티 타입과 무관하게 EntityManager에 위임)
+@RequiredArgsConstructor
+public class PersistRepositoryImpl<T> implements PersistRepository<T> {
+
+    private final EntityManager em;
+
+    @Override
+    @Transactional
+    public <S extends T> S persist(S entity) {
+        em.persist(entity);
+        return entity;
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("deprecation") // JPA에는 select 없이 reattach 하는 방법이 없다. merge()는 항상 먼저 조회한다.
+    public <S extends T> S update(S entity) {
+        // dirty tracking: flush 때 스냅샷 비교 대신 엔티티가 기록한 변경 필드를 본다. 변경이 없으면 update를 만들지 않는다.
+        em.unwrap(Session.class).update(entity);
+        return entity;
+    }
+
+    @Override
+    @Transactional
+    public long persistAll(Iterable<? extends T> entities) {
+        Session session = em.unwrap(Session.class);
+        Integer sessionBatchSize = session.getJdbcBatchSize();
+        int batchSize = sessionBatchSize != null ? sessionBatchSize
+                : ((SessionFactoryImplementor) session.getSessionFactory()).getSessionFactoryOptions().getJdbcBatchSize();
+        return persistAll(entities, Math.max(batchSize, 1));
+    }
+
+    @Override
+    @Transactional
+    public long persistAll(Iterable<? extends T> entities, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be positive");
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize); // hibernate.jdbc.batch_size 대신 이번 작업에만 적용
+
+        long count = 0;
+        try {
+            for (T entity : entities) {
+                em.persist(entity); // id는 시퀀스에서 allocationSize만큼 미리 받아 두므로 매번 조회하지 않는다.
+                if (++count % batchSize == 0) {
+                    em.flush(); // batchSize개의 insert를 하나의 JDBC batch로 전송
+                    em.clear(); // 수백만 건을 넣어도 영속성 컨텍스트가 커지지 않는다.
+                }
+            }
+            em.flush();
+            em.clear();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+        return count;
+    }
+}
@@ -1,9 +1,21 @@
 package study.datajpa.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Team;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 // JpaRepository를 상속받으면 @Repository 생략 가능
 //어노테이션의 기능: 1. 컴포넌트 스캔 2. 예외를 공통적으로 처리할 수 있는 예외로 변환
-public interface TeamRepository extends JpaRepository<Team, Long> {
+public interface TeamRepository extends JpaRepository<Team, Long>, PersistRepository<Team> {
+
+    // 비동기 조회 (MemberRepository.findAsyncByUsername 참고)
+    @Async("queryExecutor")
+    @Transactional(readOnly = true)
+    @Query("select t from Team t")
+    CompletableFuture<List<Team>> findAllAsync();
 }
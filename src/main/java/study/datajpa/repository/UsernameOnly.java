@@ -2,6 +2,8 @@ package study.datajpa.repository;
 
 import org.springframework.beans.factory.annotation.Value;
 
+// 오픈 프로젝션은 편하지만 엔티티 조회 + SpEL 평가 비용이 든다. 자주 쓰는 조회라면
+// MemberRepository.findUsernameOnlyByUsername처럼 select 절에서 값을 만들어 DTO로 받자.
 public interface UsernameOnly {
     @Value("#{target.username + ' ' + target.age}") // 오픈 프로젝션: 엔티티를 모두 가져와서 필요한 것을 뽑는 것
     String getUsername(); // 이것만 하면 클로즈 프로젝션: 처음부터 필요한것만 가져오는 것
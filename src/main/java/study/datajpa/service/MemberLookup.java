@@ -0,0 +1,35 @@
+package study.datajpa.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+// 조회 전용 API(/members/{id} 등) 앞에서 같은 id/username 동시 조회를 하나의 쿼리로 합친다. (SingleFlight)
+// 특정 회원에 요청이 몰려도 같은 SELECT가 동시에 수백 개 나가지 않는다.
+// 다른 요청의 결과를 받을 수 있으므로 방금 쓴 값을 읽어야 하는 쓰기 트랜잭션 안에서는 쓰지 않는다.
+@Service
+public class MemberLookup {
+
+    private final MemberRepository memberRepository;
+    private final SingleFlight<Long, Optional<MemberDto>> byId;
+    private final SingleFlight<String, List<MemberDto>> byUsername;
+
+    public MemberLookup(MemberRepository memberRepository, MeterRegistry registry) {
+        this.memberRepository = memberRepository;
+        this.byId = new SingleFlight<>("id", registry);
+        this.byUsername = new SingleFlight<>("username", registry);
+    }
+
+    // teamName까지 DTO 쿼리로 가져온다. (합쳐진 결과도 합치지 않은 조회와 같은 모양)
+    public Optional<MemberDto> findById(Long id) {
+        return byId.execute(id, () -> memberRepository.findMemberDtoById(id));
+    }
+
+    public List<MemberDto> findByUsername(String username) {
+        return byUsername.execute(username, () -> memberRepository.findMemberDtoByUsername(username));
+    }
+}
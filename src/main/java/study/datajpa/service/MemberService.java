@@ -0,0 +1,32 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.config.RetryOnOptimisticLock;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+@Service
+@RequiredArgsConstructor
+public class MemberService {
+
+    private final MemberRepository memberRepository;
+
+    // 비관적 락: 같은 회원을 수정하는 트랜잭션은 앞 트랜잭션이 끝날 때까지 select ... for update 에서 기다린다.
+    @Transactional
+    public void increaseAgeWithPessimisticLock(String username) {
+        for (Member member : memberRepository.findLockByUsername(username)) {
+            member.setAge(member.getAge() + 1);
+        }
+    }
+
+    // 낙관적 락: 기다리지 않고 수정한 뒤 커밋 시점에 충돌하면 처음부터 다시 실행한다.
+    @RetryOnOptimisticLock
+    @Transactional
+    public void increaseAge(String username) {
+        for (Member member : memberRepository.findOptimisticLockByUsername(username)) {
+            member.setAge(member.getAge() + 1);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package study.datajpa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+// 같은 key로 동시에 들어온 조회를 하나로 합친다. (single-flight)
+// 처음 들어온 스레드(leader)만 loader를 실행하고, 그 사이에 들어온 스레드는 leader의 결과(future)를 함께 기다린다.
+// 조회가 끝나면 바로 map에서 빠지므로 캐시가 아니다. 다음 요청은 다시 DB를 조회한다.
+// 결과는 여러 스레드가 공유하므로 엔티티가 아니라 DTO처럼 변경하지 않는 값이어야 한다.
+class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter coalesced;
+
+    // member.lookup.requests{lookup=name, result=leader|coalesced}, member.lookup.coalesced.ratio, member.lookup.in.flight
+    SingleFlight(String name, MeterRegistry registry) {
+        this.leaders = Counter.builder("member.lookup.requests")
+                .tag("lookup", name).tag("result", "leader")
+                .register(registry);
+        this.coalesced = Counter.builder("member.lookup.requests")
+                .tag("lookup", name).tag("result", "coalesced")
+                .register(registry);
+        Gauge.builder("member.lookup.coalesced.ratio", this, SingleFlight::coalescedRatio)
+                .tag("lookup", name)
+                .register(registry);
+        Gauge.builder("member.lookup.in.flight", inFlight, ConcurrentMap::size)
+                .tag("lookup", name)
+                .register(registry);
+    }
+
+    V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            return join(running);
+        }
+
+        leaders.increment();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e); // 기다리던 스레드도 같은 예외를 받는다.
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    double coalescedRatio() {
+        double total = leaders.count() + coalesced.count();
+        return total == 0 ? 0 : coalesced.count() / total;
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
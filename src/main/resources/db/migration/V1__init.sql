@@ -0,0 +1,46 @@
+-- 엔티티 매핑(ddl-auto: validate로 검증)과 실제 조회 패턴에 맞춘 초기 스키마
+
+create sequence member_seq start with 1 increment by 50;
+create sequence team_seq start with 1 increment by 50;
+create sequence item_seq start with 1 increment by 50;
+
+create table team (
+    team_id            bigint not null,
+    name               varchar(255),
+    created_by         varchar(255),
+    created_date       timestamp(6),
+    last_modified_by   varchar(255),
+    last_modified_date timestamp(6),
+    version            bigint,
+    primary key (team_id)
+);
+
+create table member (
+    member_id          bigint not null,
+    username           varchar(255),
+    age                integer not null,
+    team_id            bigint,
+    created_by         varchar(255),
+    created_date       timestamp(6),
+    last_modified_by   varchar(255),
+    last_modified_date timestamp(6),
+    version            bigint,
+    primary key (member_id)
+);
+
+create table item (
+    id           varchar(255) not null,
+    created_date timestamp(6),
+    primary key (id)
+);
+
+alter table member add constraint fk_member_team foreign key (team_id) references team;
+
+-- findByUsername, findByNames(in), findLockByUsername, findUser(username, age), 네이티브 쿼리, keyset(username 정렬)
+create index idx_member_username_age on member (username, age);
+-- findByAge(+ username 정렬 페이징), findByAgeKeyset, bulkAgePlus
+create index idx_member_age_username on member (age, username);
+-- team 조인, Team.members 로딩 (FK에 인덱스를 자동으로 만들지 않는 DB도 있다)
+create index idx_member_team on member (team_id);
+-- MemberSpec.teamName
+create index idx_team_name on team (name);
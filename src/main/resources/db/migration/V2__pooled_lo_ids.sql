@@ -0,0 +1,6 @@
+-- pooled-lo + allocationSize 500 (Member, Team)
+alter sequence member_seq increment by 500;
+alter sequence team_seq increment by 500;
+
+-- Item id는 애플리케이션에서 UUIDv7로 할당한다.
+drop sequence item_seq;
@@ -0,0 +1,7 @@
+-- keyset 페이징(MemberRepositoryImpl.findMemberKeyset)의 정렬 순서 (username, member_id)와 같은 인덱스
+-- 정렬 키 끝의 member_id까지 있어야 정렬 없이 인덱스 순서대로 읽는다. (QueryPlanValidator UNINDEXED_SORT)
+create index idx_member_username_id on member (username, member_id);
+
+-- findByAgeKeyset: age 조건 + (age, username, member_id) 정렬. 기존 (age, username) 인덱스의 용도를 모두 포함한다.
+create index idx_member_age_username_id on member (age, username, member_id);
+drop index idx_member_age_username;
@@ -0,0 +1,73 @@
+package study.datajpa.config;
+
+import org.junit.jupiter.api.Test;
+import study.datajpa.config.QueryPlanValidator.Violation;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// H2 EXPLAIN 형식의 실행 계획으로 위반 판단만 확인한다. (DB 없이)
+class QueryPlanAnalyzerTest {
+
+    @Test
+    public void innerJoinWithIndexConditionIsNotCartesian() {
+        // H2는 inner join 조건을 WHERE로 옮기고 ON 1=1로 표시한다.
+        String plan = """
+                SELECT
+                    "M1_0"."MEMBER_ID"
+                FROM "PUBLIC"."MEMBER" "M1_0"
+                    /* PUBLIC.IDX_MEMBER_AGE_USERNAME_ID: AGE = 10 */
+                INNER JOIN "PUBLIC"."TEAM" "T1_0"
+                    /* PUBLIC.PRIMARY_KEY_2: TEAM_ID = "M1_0"."TEAM_ID" */
+                    ON 1=1
+                WHERE ("M1_0"."AGE" = 10)
+                    AND ("T1_0"."TEAM_ID" = "M1_0"."TEAM_ID")""";
+
+        assertEquals(QueryPlanAnalyzer.analyze("select m1_0.member_id from member m1_0 join team t1_0 on t1_0.team_id=m1_0.team_id where m1_0.age=10", plan), List.of());
+    }
+
+    @Test
+    public void joinConditionInWhereIsNotCartesian() {
+        String plan = """
+                SELECT
+                    "M1_0"."MEMBER_ID"
+                FROM "PUBLIC"."TEAM" "T1_0"
+                    /* PUBLIC.TEAM.tableScan */
+                INNER JOIN "PUBLIC"."MEMBER" "M1_0"
+                    /* PUBLIC.MEMBER.tableScan */
+                    ON 1=1
+                WHERE "T1_0"."TEAM_ID" = "M1_0"."TEAM_ID\"""";
+
+        assertEquals(QueryPlanAnalyzer.analyze("select m1_0.member_id from member m1_0 join team t1_0 on t1_0.team_id=m1_0.team_id", plan), List.of());
+    }
+
+    @Test
+    public void joinWithoutConditionIsCartesian() {
+        String plan = """
+                SELECT
+                    "M1_0"."MEMBER_ID"
+                FROM "PUBLIC"."MEMBER" "M1_0"
+                    /* PUBLIC.MEMBER.tableScan */
+                LEFT OUTER JOIN "PUBLIC"."TEAM" "T1_0"
+                    /* PUBLIC.TEAM.tableScan */
+                    ON 1=1""";
+
+        assertEquals(QueryPlanAnalyzer.analyze("select m1_0.member_id from member m1_0 left join team t1_0 on 1=1", plan),
+                List.of(Violation.Type.CARTESIAN_JOIN));
+    }
+
+    @Test
+    public void fullScanAndUnindexedSort() {
+        String plan = """
+                SELECT
+                    "M1_0"."MEMBER_ID"
+                FROM "PUBLIC"."MEMBER" "M1_0"
+                    /* PUBLIC.MEMBER.tableScan */
+                WHERE "M1_0"."LAST_MODIFIED_BY" = 'user1'
+                ORDER BY "M1_0"."CREATED_DATE\"""";
+
+        assertEquals(QueryPlanAnalyzer.analyze("select m1_0.member_id from member m1_0 where m1_0.last_modified_by='user1' order by m1_0.created_date", plan),
+                List.of(Violation.Type.FULL_SCAN, Violation.Type.UNINDEXED_SORT));
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 위반이 max-violations를 넘으면 컨텍스트 기동이 실패하므로 ./gradlew test가 실패한다.
+// 검사기는 test application.properties에서 켜므로 다른 테스트와 같은 컨텍스트(같은 DB 초기화)를 쓴다.
+@SpringBootTest
+class QueryPlanValidatorTest {
+
+    @Autowired QueryPlanValidator queryPlanValidator;
+
+    @Test
+    public void repositoryQueriesHaveNoPlanViolations() {
+        assertTrue(queryPlanValidator.getCheckedQueries() > 0);
+        // 상속한 Spring Data 메서드, 커스텀 구현 메서드, TeamRepository도 검사한다.
+        assertTrue(queryPlanValidator.getCheckedMethods().containsAll(List.of(
+                "MemberRepository.findById(Object)",
+                "MemberRepository.findAll(Specification, Pageable)",
+                "MemberRepository.findByNames(Collection)",
+                "MemberRepository.findMemberKeyset(Specification, MemberCursor, int)",
+                "MemberRepository.findPage(Specification, Pageable, CountStrategy)",
+                "MemberRepository.bulkAgePlusChunked(int, long, int, BulkProgressListener)",
+                "TeamRepository.findAll()")), queryPlanValidator.getCheckedMethods().toString());
+        assertTrue(queryPlanValidator.getViolations().isEmpty(), queryPlanValidator.getViolations().toString());
+    }
+}
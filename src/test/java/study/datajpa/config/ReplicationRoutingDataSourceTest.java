@@ -0,0 +1,162 @@
+package study.datajpa.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// H2 두 개(primary, replica)에 서로 다른 값을 넣어 두고 어느 쪽에서 읽었는지 확인한다.
+class ReplicationRoutingDataSourceTest {
+
+    @Test
+    public void routeByReadOnly() {
+        //given
+        DataSource dataSource = routingDataSource("route", Duration.ZERO);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate write = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+
+        //when
+        String fromWrite = write.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+        String fromReadOnly = readOnly.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+
+        //then
+        assertEquals(fromWrite, "primary");
+        assertEquals(fromReadOnly, "replica");
+    }
+
+    @Test
+    public void readYourWritesWithinReplicaLag() {
+        //given
+        DataSource dataSource = routingDataSource("lag", Duration.ofMinutes(1));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate write = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+
+        //when
+        write.executeWithoutResult(status -> jdbcTemplate.update("update node set name = 'primary2'"));
+        String fromReadOnly = readOnly.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+
+        //then
+        assertEquals(fromReadOnly, "primary2"); // 복제 지연 허용 시간 안이므로 primary에서 읽는다.
+    }
+
+    @Test
+    public void readYourWritesPerClient() {
+        //given
+        DataSource dataSource = routingDataSource("client", Duration.ofMinutes(1));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate write = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+
+        //when 쓰기 요청, 같은 클라이언트의 다음 요청, 다른 클라이언트의 요청 (쿠키 없이 헤더만)
+        MockHttpServletRequest writeRequest = client("writer");
+        inRequest(writeRequest, () -> write.executeWithoutResult(status -> jdbcTemplate.update("update node set name = 'primary2'")));
+        String sameClient = inRequest(client("writer"), () -> readOnly.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class)));
+        String otherClient = inRequest(client("other"), () -> readOnly.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class)));
+
+        //then
+        assertEquals(sameClient, "primary2");
+        assertEquals(otherClient, "replica");
+        assertNull(writeRequest.getSession(false)); // 세션(JSESSIONID)을 만들지 않는다.
+    }
+
+    @Test
+    public void readYourWritesPerExistingSession() {
+        //given
+        DataSource dataSource = routingDataSource("session", Duration.ofMinutes(1));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate write = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+        MockHttpSession writer = new MockHttpSession();
+
+        //when 헤더 없이 세션 쿠키만 보내는 클라이언트
+        inRequest(session(writer), () -> write.executeWithoutResult(status -> jdbcTemplate.update("update node set name = 'primary2'")));
+        String sameClient = inRequest(session(writer), () -> readOnly.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class)));
+        String otherClient = inRequest(session(new MockHttpSession()), () -> readOnly.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class)));
+
+        //then
+        assertEquals(sameClient, "primary2");
+        assertEquals(otherClient, "replica");
+    }
+
+    @Test
+    public void rollbackDoesNotStampLastWrite() {
+        //given
+        DataSource dataSource = routingDataSource("rollback", Duration.ofMinutes(1));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate write = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+
+        //when
+        write.executeWithoutResult(status -> {
+            jdbcTemplate.update("update node set name = 'primary2'");
+            status.setRollbackOnly();
+        });
+        String fromReadOnly = readOnly.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+
+        //then
+        assertEquals(fromReadOnly, "replica"); // 커밋된 쓰기가 없으므로 replica
+    }
+
+    private MockHttpServletRequest client(String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(ReplicationRoutingDataSource.CLIENT_ID_HEADER, clientId);
+        return request;
+    }
+
+    private MockHttpServletRequest session(MockHttpSession session) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+        return request;
+    }
+
+    private <T> T inRequest(MockHttpServletRequest request, Supplier<T> action) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            return action.get();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private void inRequest(MockHttpServletRequest request, Runnable action) {
+        inRequest(request, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private DataSource routingDataSource(String name, Duration replicaLag) {
+        ReplicationRoutingDataSource routingDataSource =
+                new ReplicationRoutingDataSource(h2(name + "-primary", "primary"), h2(name + "-replica", "replica"), replicaLag);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private DataSource h2(String database, String nodeName) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table node (name varchar(20))");
+        jdbcTemplate.update("insert into node values (?)", nodeName);
+        return dataSource;
+    }
+}
@@ -2,6 +2,9 @@ package study.datajpa.entity;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +15,11 @@ import study.datajpa.repository.MemberRepository;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
 @SpringBootTest
 @Transactional
 @Rollback(false)
@@ -78,4 +86,49 @@ class MemberTest {
         System.out.println("LastModifiedBy = " + findMember.getLastModifiedBy());
     }
 
+    @Test
+    public void changeTeamWithoutLoadingMembers() {
+        //given 회원이 많은 팀
+        Team bigTeam = new Team("bigTeam");
+        em.persist(bigTeam);
+        for (int i = 0; i < 1000; i++) {
+            em.persist(new Member("bigTeamMember" + i, 10, bigTeam));
+        }
+        Member member = new Member("mover", 10);
+        em.persist(member);
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //when
+        Team team = em.find(Team.class, bigTeam.getId());
+        Member mover = em.find(Member.class, member.getId());
+        mover.changeTeam(team);
+        em.flush();
+
+        //then 컬렉션을 로딩하지 않고 회원 update만 나간다.
+        assertFalse(Hibernate.isInitialized(team.getMembers()));
+        assertEquals(statistics.getCollectionLoadCount(), 0);
+        assertEquals(statistics.getEntityUpdateCount(), 1);
+
+        // 나중에 컬렉션을 초기화하면 큐에 쌓인 회원도 포함된다.
+        assertEquals(team.getMembers().size(), 1001);
+    }
+
+    @Test
+    public void auditOncePerTransaction() {
+        //given
+        Member member1 = memberRepository.save(new Member("audit1")); //@PrePersist
+        Member member2 = memberRepository.save(new Member("audit2"));
+
+        //then 작성자는 트랜잭션당 1번 구해서 함께 쓰고, 시간은 저장할 때마다 읽는다.
+        assertNotNull(member1.getCreatedBy());
+        assertSame(member1.getCreatedBy(), member2.getCreatedBy());
+        assertNotNull(member1.getCreatedDate());
+        assertFalse(member2.getCreatedDate().isBefore(member1.getCreatedDate()));
+        assertEquals(member1.getCreatedDate(), member1.getLastModifiedDate());
+    }
+
 }
\ No newline at end of file
@@ -1,9 +1,16 @@
 package study.datajpa.repository;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import study.datajpa.entity.Item;
+import study.datajpa.entity.Member;
+
+import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -12,12 +19,64 @@ class ItemRepositoryTest {
 
     @Autowired
     private ItemRepository itemRepository;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     @Test
     public void testSave() {
+        Item first = Item.create();
+        Item second = Item.create();
+
+        // id를 직접 할당해도 isNew()가 true이므로 merge(select) 없이 persist 된다.
+        itemRepository.save(first);
+        itemRepository.save(second);
+
+        assertNotNull(first.getCreatedDate());
+        assertTrue(itemRepository.existsById(first.getId()));
+        assertEquals(first.getId().charAt(14), '7'); // UUID version 7
+        assertTrue(first.getId().substring(0, 8).compareTo(second.getId().substring(0, 8)) <= 0); // 시간순
+    }
+
+    @Test
+    public void persistAllWithoutSelect() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Item> items = IntStream.range(0, 1000).mapToObj(i -> Item.create()).toList();
+        statistics.clear();
+
+        long count = itemRepository.persistAll(items);
+
+        assertEquals(count, 1000);
+        assertEquals(statistics.getEntityInsertCount(), 1000);
+        assertEquals(statistics.getEntityLoadCount(), 0); // merge()의 존재 확인 select 없음
+    }
+
+    @Test
+    public void updateWithoutSelect() {
+        Item item = itemRepository.persist(Item.create()); // 트랜잭션이 끝나면 준영속
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        itemRepository.update(item);
+
+        // 준영속 상태에서 바뀐 필드가 없으므로(dirty tracking) update도 select도 없다.
+        assertEquals(statistics.getEntityUpdateCount(), 0);
+        assertEquals(statistics.getEntityLoadCount(), 0);
+    }
+
+    @Test
+    public void updateChangedFieldsWithoutSelect() {
+        Member member = memberRepository.persist(new Member("detached1", 10)); // 트랜잭션이 끝나면 준영속
+        member.setUsername("detached2"); // 준영속 상태에서 변경 -> dirty tracking이 기록
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        memberRepository.update(member);
 
-//        Item item = new Item();
-//        itemRepository.save(item);
+        assertEquals(statistics.getEntityUpdateCount(), 1);
+        assertEquals(statistics.getEntityLoadCount(), 0);
+        assertEquals(memberRepository.findById(member.getId()).get().getUsername(), "detached2");
     }
 
 }
\ No newline at end of file
@@ -1,30 +1,49 @@
 package study.datajpa.repository;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
 import org.hibernate.query.NativeQuery;
+import org.hibernate.stat.Statistics;
 import org.hibernate.transform.Transformers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @Transactional
 @Rollback(value = false)
+@Import(StatementCounter.class)
 class MemberRepositoryTest {
 
     @Autowired MemberRepository memberRepository;
@@ -32,6 +51,9 @@ class MemberRepositoryTest {
     @Autowired TeamRepository teamRepository;
     @PersistenceContext
     EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired StatementCounter statementCounter;
+    @Autowired MeterRegistry meterRegistry;
 
     @DisplayName("테스트 멤버")
     @Test
@@ -186,6 +208,24 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void findByNamesInChunks() {
+        //given
+        List<Member> members = IntStream.range(0, 1200).mapToObj(i -> new Member("inName" + i, 10)).toList();
+        memberRepository.persistAll(members, 100);
+        List<String> names = new ArrayList<>(members.stream().map(Member::getUsername).toList());
+        names.add("inName0"); // 중복
+        statementCounter.reset();
+
+        //when
+        List<Member> result = memberRepository.findByNames(names);
+
+        //then 512 + 512 + 176(-> 256으로 padding)
+        assertEquals(result.size(), 1200);
+        assertEquals(statementCounter.getCount(), 3);
+        assertTrue(memberRepository.findByNames(List.of()).isEmpty());
+    }
+
     @Test
     public void testReturnType() {
         //given
@@ -244,6 +284,241 @@ class MemberRepositoryTest {
         // List는 conntent만 가져온다.
     }
 
+    @Test
+    public void findPageWithCountStrategy() {
+        //given
+        for (int i = 0; i < 30; i++) {
+            memberRepository.save(new Member("countMember" + i, 6789));
+        }
+        em.flush();
+        em.clear();
+        PageRequest pageRequest = PageRequest.of(1, 5, Sort.by("username"));
+
+        //when
+        EstimatedPage<Member> exact = memberRepository.findPage(MemberSpec.age(6789), pageRequest, CountStrategy.exact());
+        EstimatedPage<Member> capped = memberRepository.findPage(MemberSpec.age(6789), pageRequest, CountStrategy.capped(20));
+        EstimatedPage<Member> notReached = memberRepository.findPage(MemberSpec.age(6789), pageRequest, CountStrategy.capped(100));
+        EstimatedPage<Member> lastPage = memberRepository.findPage(MemberSpec.age(6789), PageRequest.of(4, 7), CountStrategy.capped(1));
+
+        //then
+        assertEquals(exact.getTotalElements(), 30);
+        assertFalse(exact.isTotalEstimated());
+        assertEquals(capped.getTotalElements(), 20);
+        assertTrue(capped.isTotalEstimated());
+        assertEquals(notReached.getTotalElements(), 30);
+        assertFalse(notReached.isTotalEstimated());
+        assertEquals(lastPage.getTotalElements(), 30); // 마지막 페이지는 count 없이 content로 계산
+        assertFalse(lastPage.isTotalEstimated());
+        assertEquals(exact.getContent().get(0).getUsername(), "countMember13"); // username 정렬
+    }
+
+    // 쿼리 캐시는 커밋된 데이터만 다른 트랜잭션에 보여주므로 테스트 트랜잭션 없이 실행한다.
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void findPageWithCachedCount() {
+        //given
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            for (int i = 0; i < 10; i++) {
+                memberRepository.save(new Member("cachedCount" + i, 6790));
+            }
+        });
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        PageRequest pageRequest = PageRequest.of(0, 5);
+
+        //when
+        EstimatedPage<Member> first = transaction.execute(status ->
+                memberRepository.findPage(MemberSpec.age(6790), pageRequest, CountStrategy.cached()));
+        long hitCount = statistics.getQueryCacheHitCount();
+        EstimatedPage<Member> cached = transaction.execute(status ->
+                memberRepository.findPage(MemberSpec.age(6790), pageRequest, CountStrategy.cached()));
+        long cachedHitCount = statistics.getQueryCacheHitCount();
+        transaction.executeWithoutResult(status -> memberRepository.save(new Member("cachedCount10", 6790)));
+        EstimatedPage<Member> refreshed = transaction.execute(status ->
+                memberRepository.findPage(MemberSpec.age(6790), pageRequest, CountStrategy.cached()));
+
+        //then
+        assertEquals(first.getTotalElements(), 10);
+        assertEquals(cached.getTotalElements(), 10);
+        assertEquals(cachedHitCount, hitCount + 1); // 두 번째 count는 쿼리 캐시에서 읽는다.
+        assertEquals(refreshed.getTotalElements(), 11); // member insert가 캐시된 count를 무효화
+        assertEquals(statistics.getQueryCacheHitCount(), cachedHitCount);
+        assertFalse(refreshed.isTotalEstimated());
+    }
+
+    @Test
+    public void findPageWithEstimatedCount() {
+        //given
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member("estimatedCount" + i, 6791));
+        }
+        em.flush();
+        em.clear();
+
+        //when
+        EstimatedPage<Member> page = memberRepository.findPage(null, PageRequest.of(0, 5), CountStrategy.estimated());
+
+        //then
+        assertEquals(page.getContent().size(), 5);
+        assertTrue(page.getTotalElements() >= 0);
+        assertTrue(page.isTotalEstimated()); // 조건 없는 count는 DB 통계의 추정치
+    }
+
+    @Test
+    public void findByAgeAndNativeProjectionWithCountStrategy() {
+        //given
+        for (int i = 0; i < 30; i++) {
+            memberRepository.save(new Member("countByAge" + i, 6792));
+        }
+        em.flush();
+        em.clear();
+
+        //when
+        EstimatedPage<Member> exact = memberRepository.findByAge(6792, PageRequest.of(1, 5), CountStrategy.exact());
+        EstimatedPage<Member> capped = memberRepository.findByAge(6792, PageRequest.of(1, 5), CountStrategy.capped(20));
+        EstimatedPage<MemberProjection> projection =
+                memberRepository.findByNativeProjection(PageRequest.of(0, 5), CountStrategy.capped(1));
+
+        //then
+        assertEquals(exact.getTotalElements(), 30);
+        assertFalse(exact.isTotalEstimated());
+        assertEquals(capped.getTotalElements(), 20);
+        assertTrue(capped.isTotalEstimated());
+        assertEquals(projection.getContent().size(), 5);
+        assertEquals(projection.getTotalElements(), 6); // cap(1)을 넘으면 최소한 지금까지 본 행 수 + 1
+        assertTrue(projection.isTotalEstimated());
+    }
+
+    @Test
+    public void countStrategyParse() {
+        assertEquals(CountStrategy.parse("exact"), CountStrategy.exact());
+        assertEquals(CountStrategy.parse("capped").getMax(), CountStrategy.DEFAULT_CAP);
+        assertThrows(InvalidCountStrategyException.class, () -> CountStrategy.parse("fast"));
+    }
+
+    @Test
+    public void testMemberDtoPageWithoutNPlusOne() {
+        //given
+        for (int i = 0; i < 5; i++) {
+            Team team = new Team("team" + i);
+            teamRepository.save(team);
+            memberRepository.save(new Member("member" + i, 10, team));
+        }
+        em.flush();
+        em.clear();
+        statementCounter.reset();
+
+        //when
+        Page<MemberDto> page = memberRepository.findMemberDtoPage(PageRequest.of(0, 3, Sort.by("username")));
+        for (MemberDto dto : page.getContent()) {
+            System.out.println("dto = " + dto);
+        }
+
+        //then
+        assertEquals(page.getContent().size(), 3);
+        assertEquals(statementCounter.getCount(), 2); // content 1번 + count 1번, 회원 수만큼 team을 조회하지 않는다.
+    }
+
+    @Test
+    public void testRepositoryQueryMetrics() {
+        //given
+        memberRepository.save(new Member("metric1", 10));
+        em.flush();
+
+        //when
+        memberRepository.findMemberDto();
+
+        //then
+        DistributionSummary statements = meterRegistry.find("repository.jdbc.statements")
+                .tags("repository", "MemberRepository", "method", "findMemberDto")
+                .summary();
+        assertTrue(statements != null && statements.count() > 0);
+    }
+
+    @Test
+    public void testKeysetPaging() {
+        //given
+        int age = 1234;
+        memberRepository.save(new Member("member1", age));
+        memberRepository.save(new Member("member2", age));
+        memberRepository.save(new Member("member3", age));
+        memberRepository.save(new Member("member4", age));
+        memberRepository.save(new Member("member5", age));
+
+        //when
+        Slice<MemberDto> first = memberRepository.findByAgeKeyset(age, null, 3);
+        MemberDto last = first.getContent().get(first.getContent().size() - 1);
+        MemberCursor cursor = MemberCursor.decode(MemberCursor.of(last).encode());
+        Slice<MemberDto> second = memberRepository.findByAgeKeyset(age, cursor, 3);
+
+        //then
+        assertEquals(first.getContent().size(), 3);
+        assertTrue(first.hasNext());
+        assertEquals(second.getContent().size(), 2);
+        assertEquals(second.getContent().get(0).getUsername(), "member4");
+        assertFalse(second.hasNext());
+        assertThrows(InvalidCursorException.class, () -> MemberCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    public void testPersistAllBatched() {
+        //given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            members.add(new Member("batch" + i, 2345));
+        }
+
+        //when
+        long savedCount = memberRepository.persistAll(members, 100);
+
+        //then
+        assertEquals(savedCount, 250);
+        assertEquals(memberRepository.findByAgeKeyset(2345, null, 300).getContent().size(), 250);
+    }
+
+    // ./gradlew test -Dbenchmark=true --tests "*MemberRepositoryTest.benchmarkPersistAllBatched"
+    // heap을 256m로 제한한 상태에서 100만 건을 저장한다. flush()/clear()를 하지 않으면 OOM이 난다.
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void benchmarkPersistAllBatched() {
+        int total = 1_000_000;
+        Iterable<Member> members = () -> IntStream.range(0, total)
+                .mapToObj(i -> new Member("bulk" + i, i % 100))
+                .iterator();
+
+        long start = System.nanoTime();
+        long savedCount = memberRepository.persistAll(members, 1000);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        Runtime runtime = Runtime.getRuntime();
+        System.out.println("saved = " + savedCount + ", elapsed = " + elapsedMillis + "ms"
+                + ", rows/s = " + (savedCount * 1000L / Math.max(elapsedMillis, 1))
+                + ", usedHeap = " + (runtime.totalMemory() - runtime.freeMemory()) / 1024 / 1024 + "MB"
+                + ", maxHeap = " + runtime.maxMemory() / 1024 / 1024 + "MB");
+        assertEquals(savedCount, total);
+    }
+
+    @Test
+    public void testStreamMemberDto() {
+        //given
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("stream1", 10, teamA));
+        memberRepository.save(new Member("stream2", 10));
+        em.flush();
+        em.clear();
+
+        //when
+        List<MemberDto> result;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto(1)) {
+            result = stream.filter(dto -> dto.getUsername().startsWith("stream")).toList();
+        }
+
+        //then
+        assertEquals(result.size(), 2);
+        assertTrue(result.stream().anyMatch(dto -> "teamA".equals(dto.getTeamName())));
+    }
+
     @Test
     public void testBulkUpdate() {
         //given
@@ -268,6 +543,55 @@ class MemberRepositoryTest {
         assertEquals(resultCount, 3);
     }
     
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void bulkAgePlusChunkedResume() {
+        //given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            members.add(new Member("chunk" + i, 4567));
+        }
+        memberRepository.saveAll(members);
+
+        //when
+        // 첫 번째 청크를 커밋한 뒤 실패
+        AtomicLong checkpoint = new AtomicLong();
+        assertThrows(IllegalStateException.class, () ->
+                memberRepository.bulkAgePlusChunked(4567, 0, 50, (lastId, maxId, updated) -> {
+                    checkpoint.set(lastId);
+                    throw new IllegalStateException("chunk failed");
+                }));
+        // 마지막으로 커밋된 id부터 다시 실행
+        memberRepository.bulkAgePlusChunked(4567, checkpoint.get(), 50, BulkProgressListener.NONE);
+
+        //then
+        for (Member member : members) {
+            assertEquals(memberRepository.findById(member.getId()).get().getAge(), 4568); // 정확히 한 번씩만 증가
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void bulkAgePlusChunkedRefreshesCallerContext() {
+        //given
+        Member saved = memberRepository.save(new Member("chunkCaller", 4577));
+
+        //when 호출한 쪽 트랜잭션이 Member를 들고 있는 채로 청크 update 후 수정
+        Member member = new TransactionTemplate(transactionManager).execute(status -> {
+            Member managed = memberRepository.findById(saved.getId()).get();
+            memberRepository.bulkAgePlusChunked(4577, 0, 50, BulkProgressListener.NONE);
+            assertEquals(managed.getAge(), 4578); // 커밋된 값으로 refresh
+            managed.setUsername("chunkCaller2");
+            em.flush(); // 옛 version으로 update 하지 않는다. (OptimisticLockException X)
+            return managed;
+        });
+
+        //then
+        Member result = memberRepository.findById(member.getId()).get();
+        assertEquals(result.getUsername(), "chunkCaller2");
+        assertEquals(result.getAge(), 4578);
+    }
+
     @Test
     public void findMemberLazy() {
         //given
@@ -296,6 +620,107 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void specificationKeyset() {
+        //given
+        Team teamA = teamRepository.save(new Team("specTeamA"));
+        Team teamB = teamRepository.save(new Team("specTeamB"));
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("spec" + i, 20, i % 2 == 0 ? teamA : teamB));
+        }
+        memberRepository.save(new Member("spec_x", 20, teamA)); // '_'가 like 와일드카드로 처리되지 않아야 한다.
+        em.flush();
+        em.clear();
+
+        //when
+        Specification<Member> spec = Specification.where(MemberSpec.usernameStartsWith("spec"))
+                .and(MemberSpec.username(null)) // 빈 조건은 무시
+                .and(MemberSpec.teamName("specTeamA"));
+        Slice<MemberDto> first = memberRepository.findMemberKeyset(spec, null, 2);
+        Slice<MemberDto> second = memberRepository.findMemberKeyset(spec, MemberCursor.of(first.getContent().get(1)), 2);
+        Slice<MemberDto> escaped = memberRepository.findMemberKeyset(MemberSpec.usernameStartsWith("spec_"), null, 10);
+        Slice<MemberDto> withoutTeamFilter = memberRepository.findMemberKeyset(MemberSpec.usernameStartsWith("spec"), null, 10);
+
+        //then spec0, spec2, spec4, spec_x
+        assertEquals(first.getContent().stream().map(MemberDto::getUsername).toList(), List.of("spec0", "spec2"));
+        assertTrue(first.hasNext());
+        assertEquals(second.getContent().stream().map(MemberDto::getUsername).toList(), List.of("spec4", "spec_x"));
+        assertFalse(second.hasNext());
+        assertEquals(escaped.getContent().stream().map(MemberDto::getUsername).toList(), List.of("spec_x"));
+        // teamName도 함께 조회된다. (teamName 조건이 없어도 left join)
+        assertTrue(first.getContent().stream().allMatch(dto -> "specTeamA".equals(dto.getTeamName())));
+        assertTrue(withoutTeamFilter.getContent().stream()
+                .anyMatch(dto -> dto.getUsername().equals("spec1") && "specTeamB".equals(dto.getTeamName())));
+    }
+
+    @Test
+    public void batchFetchLazyAssociations() {
+        //given 팀 100개, 회원 1000명
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            teams.add(new Team("batchTeam" + i));
+        }
+        teamRepository.saveAll(teams);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            members.add(new Member("batchFetch" + i, 5678, teams.get(i % 100)));
+        }
+        memberRepository.persistAll(members, 100);
+        em.flush();
+        em.clear();
+        statementCounter.reset();
+
+        //when 회원마다 team 프록시를, 팀마다 members 컬렉션을 초기화
+        List<Member> result = em.createQuery("select m from Member m where m.age = :age", Member.class)
+                .setParameter("age", 5678)
+                .getResultList();
+        int memberCount = 0;
+        for (Member member : result) {
+            member.getTeam().getName();
+        }
+        for (Member member : result) {
+            memberCount += member.getTeam().getMembers().size();
+        }
+
+        //then 배치 페치가 없으면 1 + 100(team) + 100(members) 번, 있으면 한 자리 수
+        assertEquals(result.size(), 1000);
+        assertEquals(memberCount, 1000 * 10);
+        assertTrue(statementCounter.getCount() <= 10, "statements = " + statementCounter.getCount());
+    }
+
+    // 2차 캐시는 커밋된 데이터만 다른 트랜잭션에 보여주므로 테스트 트랜잭션 없이 실행한다.
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void secondLevelCache() {
+        //given
+        Team team = teamRepository.save(new Team("cachedTeam")); // 커밋 시점에 2차 캐시에 저장
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long hitCount = statistics.getSecondLevelCacheHitCount();
+
+        //when
+        Team findTeam = teamRepository.findById(team.getId()).get();
+
+        //then
+        assertEquals(findTeam.getName(), "cachedTeam");
+        assertTrue(statistics.getSecondLevelCacheHitCount() > hitCount); // select 없이 캐시에서 조회
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void secondLevelCacheAfterBulkUpdate() {
+        //given
+        Member member = memberRepository.save(new Member("cachedMember", 3456));
+        memberRepository.findById(member.getId()); // 2차 캐시에서 조회
+
+        //when
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> memberRepository.bulkAgePlus(3456));
+
+        //then
+        Member findMember = memberRepository.findById(member.getId()).get();
+        assertEquals(findMember.getAge(), 3457); // bulk 연산 후 캐시에 남아 있던 이전 값을 읽으면 안 된다.
+    }
+
     @Test
     public void testQueryHint() {
         //given
@@ -321,6 +746,42 @@ class MemberRepositoryTest {
         List<Member> member11 = memberRepository.findLockByUsername("member1");
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void asyncFanOut() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("asyncTeam"));
+        memberRepository.save(new Member("async1", 10, team));
+
+        //when
+        CompletableFuture<List<MemberDto>> members = memberRepository.findAsyncByUsername("async1");
+        CompletableFuture<List<Team>> teams = teamRepository.findAllAsync();
+        CompletableFuture.allOf(members, teams).get(5, TimeUnit.SECONDS);
+
+        //then
+        assertEquals(members.get().size(), 1);
+        assertEquals(members.get().get(0).getUsername(), "async1");
+        assertEquals(members.get().get(0).getTeamName(), "asyncTeam");
+    }
+
+    @Test
+    public void findMemberDtoWithTeamName() {
+        //given
+        Team team = teamRepository.save(new Team("lookupTeam"));
+        Member withTeam = memberRepository.save(new Member("lookup1", 10, team));
+        Member withoutTeam = memberRepository.save(new Member("lookup2", 10));
+
+        //when
+        MemberDto byId = memberRepository.findMemberDtoById(withTeam.getId()).get();
+        MemberDto noTeam = memberRepository.findMemberDtoById(withoutTeam.getId()).get();
+        List<MemberDto> byUsername = memberRepository.findMemberDtoByUsername("lookup1");
+
+        //then
+        assertEquals(byId.getTeamName(), "lookupTeam");
+        assertEquals(noTeam.getTeamName(), null); // left join
+        assertEquals(byUsername.get(0).getTeamName(), "lookupTeam");
+    }
+
     @Test
     public void testCallCustom() {
         List<Member> result = memberRepository.findMemberCustom();
@@ -367,6 +828,23 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void closedDtoProjection() {
+        //given
+        em.persist(new Member("projection1", 15));
+        em.flush();
+        em.clear();
+
+        //when
+        List<UsernameOnly> open = memberRepository.findProjectionsByUsername("projection1");
+        List<UsernameOnlyDto> closed = memberRepository.findUsernameOnlyByUsername("projection1");
+
+        //then
+        assertEquals(closed.size(), 1);
+        assertEquals(closed.get(0).getUsername(), "projection1 15");
+        assertEquals(closed.get(0).getUsername(), open.get(0).getUsername());
+    }
+
     @Test
     public void nativeQuery() {
         //given
@@ -0,0 +1,73 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// 레파지토리의 조건 조회가 실제로 인덱스를 타는지 H2 EXPLAIN으로 확인한다.
+// 실행된 SQL(파라미터 값 포함)을 StatementCounter로 모아서 그대로 EXPLAIN 하고, 실행 계획에 tableScan이 있으면 실패한다.
+@SpringBootTest
+@Transactional
+@Import(StatementCounter.class)
+class QueryPlanTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired StatementCounter statementCounter;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    EntityManager em;
+
+    static Stream<Arguments> queries() {
+        return Stream.of(
+                query("findByUsername", r -> r.findByUsername("user1")),
+                query("findUser", r -> r.findUser("user1", 1)),
+                query("findByNames", r -> r.findByNames(List.of("user1", "user2"))),
+                query("findByUsernameAndAgeGreaterThan", r -> r.findByUsernameAndAgeGreaterThan("user1", 0)),
+                query("findLockByUsername", r -> r.findLockByUsername("user1")),
+                query("findByNativeQuery", r -> r.findByNativeQuery("user1")),
+                query("findByAge", r -> r.findByAge(10, PageRequest.of(0, 3, Sort.by("username")))),
+                query("findByAgeKeyset", r -> r.findByAgeKeyset(10, null, 3)),
+                query("findMemberKeyset(usernameStartsWith)",
+                        r -> r.findMemberKeyset(MemberSpec.usernameStartsWith("user1"), null, 3)),
+                query("bulkAgePlus", r -> r.bulkAgePlus(1_000_000)));
+    }
+
+    private static Arguments query(String name, Consumer<MemberRepository> query) {
+        return Arguments.of(name, query);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void noFullScan(String name, Consumer<MemberRepository> query) {
+        // 2차 캐시/쿼리 캐시에 걸리면 SQL이 실행되지 않으므로 비운다.
+        em.getEntityManagerFactory().getCache().evictAll();
+        em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        statementCounter.reset();
+
+        query.accept(memberRepository);
+
+        List<String> statements = statementCounter.getStatements();
+        assertFalse(statements.isEmpty(), name + ": 실행된 SQL이 없다.");
+        for (String sql : statements) {
+            String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+            System.out.println(name + " plan = " + plan);
+            assertFalse(plan.contains(".tableScan"), name + ": " + plan);
+        }
+    }
+}
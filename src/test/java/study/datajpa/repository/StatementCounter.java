@@ -0,0 +1,36 @@
+package study.datajpa.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// p6spy로 실제 DB에 실행된 SQL 수를 센다. (테스트에서 N+1 검증용)
+// JdbcEventListener 빈으로 등록하면 p6spy-spring-boot-starter가 자동으로 붙여 준다. -> @Import(StatementCounter.class)
+public class StatementCounter extends SimpleJdbcEventListener {
+
+    private final AtomicInteger count = new AtomicInteger();
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        count.incrementAndGet();
+        statements.add(statementInformation.getSqlWithValues()); // 파라미터 값이 채워진 SQL (EXPLAIN 용)
+    }
+
+    public void reset() {
+        count.set(0);
+        statements.clear();
+    }
+
+    public List<String> getStatements() {
+        return List.copyOf(statements);
+    }
+
+    public int getCount() {
+        return count.get();
+    }
+}
@@ -0,0 +1,74 @@
+package study.datajpa.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    @Test
+    public void coalesceConcurrentLookups() throws Exception {
+        //given leader의 조회가 끝나지 않도록 막아 둔다.
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", registry);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int threadCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        //when
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "member1";
+            })));
+        }
+        while (registry.get("member.lookup.requests").tag("result", "coalesced").counter().count() < threadCount - 1) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        //then
+        for (Future<String> result : results) {
+            assertEquals(result.get(5, TimeUnit.SECONDS), "member1");
+        }
+        executor.shutdown();
+        assertEquals(loads.get(), 1);
+        assertEquals(singleFlight.coalescedRatio(), (double) (threadCount - 1) / threadCount);
+
+        // 끝난 조회는 남아 있지 않다. (캐시 X)
+        singleFlight.execute(1L, () -> "member1" + loads.incrementAndGet());
+        assertEquals(loads.get(), 2);
+    }
+
+    @Test
+    public void failureIsNotCached() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", new SimpleMeterRegistry());
+
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute(1L, () -> {
+            throw new IllegalStateException("db down");
+        }));
+        assertEquals(singleFlight.execute(1L, () -> "member1"), "member1");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}